@@ -0,0 +1,59 @@
+package com.zhudai.call;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.litepal.LitePal;
+
+/**
+ * 进程内共享的LitePal数据库连接
+ * <p>首次使用时打开，之后不再关闭：SQLite的页缓存和连接上已编译的语句在页面重建后
+ * 可以继续使用。LocalCallPresenter、通话记录同步等也直接使用同一个LitePal数据库，
+ * 所以这里不提供关闭连接的方法。</p>
+ * <p>打开后尝试启用WAL，读写互不阻塞；若此时其他线程正在使用连接则暂不启用，
+ * 下次获取时再尝试。</p>
+ */
+public final class CallLogDatabaseManager {
+
+    private static CallLogDatabaseManager sInstance;
+
+    private SQLiteDatabase mDatabase;
+    private boolean mIsWalEnabled;
+
+    private CallLogDatabaseManager() {
+    }
+
+    public static synchronized CallLogDatabaseManager getInstance() {
+        if (sInstance == null) {
+            sInstance = new CallLogDatabaseManager();
+        }
+        return sInstance;
+    }
+
+    /**
+     * 获取数据库连接，首次获取时打开，调用方不能关闭
+     */
+    public synchronized SQLiteDatabase getDatabase() {
+        if (mDatabase == null || !mDatabase.isOpen()) {
+            mDatabase = LitePal.getDatabase();
+            mIsWalEnabled = false;
+        }
+        if (!mIsWalEnabled) {
+            mIsWalEnabled = enableWriteAheadLogging(mDatabase);
+        }
+        return mDatabase;
+    }
+
+    /*
+     * 启用WAL需要重新配置连接池，其他线程持有连接（例如同步正在写入）时会抛出IllegalStateException
+     */
+    private static boolean enableWriteAheadLogging(SQLiteDatabase database) {
+        if (database.inTransaction()) {
+            return false;
+        }
+        try {
+            return database.enableWriteAheadLogging();
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+}
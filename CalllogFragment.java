@@ -3,8 +3,10 @@ package com.zhudai.tab;
 import android.Manifest;
 import android.app.Dialog;
 import android.content.Intent;
-import android.database.sqlite.SQLiteDatabase;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.NonNull;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -23,6 +25,7 @@ import com.joker.annotation.PermissionsRationale;
 import com.joker.api.Permissions4M;
 import com.zhudai.R;
 import com.zhudai.call.CallLogContract;
+import com.zhudai.call.CallLogDatabaseManager;
 import com.zhudai.call.activity.DayCallCountActivity;
 import com.zhudai.call.adapter.LocalCallLogAdapter;
 import com.zhudai.call.entity.CallLogInfo;
@@ -34,7 +37,6 @@ import com.zhudai.view.DatePickerDialog;
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
-import org.litepal.LitePal;
 
 import java.util.Calendar;
 import java.util.List;
@@ -49,6 +51,8 @@ import timber.log.Timber;
 public class CalllogFragment extends TabFragmentBase implements ITabFragment, CallLogContract.CallLogView {
 
     private static final int CALL_LOG_CODE = 201;
+    // 连续的通话事件在此时间内合并为一次刷新
+    private static final long NEW_CALL_LOG_DEBOUNCE_MS = 500;
 
     @BindView(R.id.list)
     ListView mCallLogListView;
@@ -72,14 +76,24 @@ public class CalllogFragment extends TabFragmentBase implements ITabFragment, Ca
 
     private LocalCallLogAdapter mLocalCallLogAdapter;
     private LocalCallPresenter mLocalCallPresenter;
-    private SQLiteDatabase mSQLiteDatabase;
+    private DatePickerDialog mDatePickerDialog;
+    private DatePickerDialog.AsyncBuilder mDatePickerBuilder;
     private int mYear;
     private int mMonth;
 
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mNewCallLogRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onNewCallLogSettled();
+        }
+    };
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        mSQLiteDatabase = LitePal.getDatabase();
+        // 提前打开共享的数据库连接，页面销毁时不关闭
+        CallLogDatabaseManager.getInstance().getDatabase();
         mLocalCallPresenter = new LocalCallPresenter(CalllogFragment.this.getActivity(), this);
     }
 
@@ -97,6 +111,33 @@ public class CalllogFragment extends TabFragmentBase implements ITabFragment, Ca
         mCallLogListView.setAdapter(mLocalCallLogAdapter);
         Timber.v("CalllogFragment initContentView");
         refresh();
+        prewarmDatePickerDialog();
+    }
+
+    /**
+     * 主线程空闲时在后台预先创建日期对话框，点击日期时直接复用
+     */
+    private void prewarmDatePickerDialog() {
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (isAdded() && getView() != null && mDatePickerDialog == null) {
+                    mDatePickerBuilder = new DatePickerDialog.AsyncBuilder(CalllogFragment.this.getActivity())
+                            .setOnDateSetListener(new SolarDatePickerListener());
+                    mDatePickerBuilder.build(new DatePickerDialog.OnDialogReadyListener() {
+                        @Override
+                        public void onDialogReady(DatePickerDialog dialog) {
+                            mDatePickerBuilder = null;
+                            // 点击时可能已经同步创建过
+                            if (isAdded() && getView() != null && mDatePickerDialog == null) {
+                                mDatePickerDialog = dialog;
+                            }
+                        }
+                    });
+                }
+                return false;
+            }
+        });
     }
 
     private void initHeadView() {
@@ -174,7 +215,20 @@ public class CalllogFragment extends TabFragmentBase implements ITabFragment, Ca
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onNewCallLog(NewCallLogEvent event) {
         Timber.v("CalllogFragment NewCallLogEvent");
-        refresh();
+        mHandler.removeCallbacks(mNewCallLogRunnable);
+        mHandler.postDelayed(mNewCallLogRunnable, NEW_CALL_LOG_DEBOUNCE_MS);
+    }
+
+    private void onNewCallLogSettled() {
+        if (getView() == null) {
+            return;
+        }
+        // 新的通话记录只会落在当前月，显示的不是当前月时不需要重新加载
+        Calendar c = Calendar.getInstance();
+        if (mYear != c.get(Calendar.YEAR) || mMonth != c.get(Calendar.MONTH) + 1) {
+            return;
+        }
+        loadData(mYear, mMonth);
     }
 
     private void setCurrentDate() {
@@ -195,13 +249,16 @@ public class CalllogFragment extends TabFragmentBase implements ITabFragment, Ca
 
     @Override
     public Dialog createDialog() {
-        DatePickerDialog d;
         final Calendar calendar = Calendar.getInstance();
-        d = new DatePickerDialog(CalllogFragment.this.getActivity(), 0, new SolarDatePickerListener(),
-                calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH),
-                calendar.get(Calendar.DAY_OF_MONTH), false, false);
-        d.getDatePicker();
-        return d;
+        if (mDatePickerDialog == null) {
+            mDatePickerDialog = new DatePickerDialog(CalllogFragment.this.getActivity(), 0, new SolarDatePickerListener(),
+                    calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH),
+                    calendar.get(Calendar.DAY_OF_MONTH), false, false);
+        } else {
+            mDatePickerDialog.updateDate(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH),
+                    calendar.get(Calendar.DAY_OF_MONTH), false);
+        }
+        return mDatePickerDialog;
     }
 
     @Override
@@ -275,7 +332,15 @@ public class CalllogFragment extends TabFragmentBase implements ITabFragment, Ca
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        mSQLiteDatabase.close();
+        mHandler.removeCallbacks(mNewCallLogRunnable);
+        if (mDatePickerBuilder != null) {
+            mDatePickerBuilder.cancel();
+            mDatePickerBuilder = null;
+        }
+        if (mDatePickerDialog != null) {
+            mDatePickerDialog.dismiss();
+            mDatePickerDialog = null;
+        }
     }
 
     private class SolarDatePickerListener implements DatePickerDialog.OnDateSetListener {
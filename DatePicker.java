@@ -24,11 +24,10 @@ import android.graphics.Typeface;
 import android.os.Build;
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.text.format.DateFormat;
-import android.text.format.DateUtils;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.View;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityManager;
@@ -42,12 +41,10 @@ import android.widget.TextView;
 import com.zhudai.R;
 import com.zhudai.util.Utils;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
-import java.util.Locale;
 import java.util.regex.Pattern;
 
 /**
@@ -60,9 +57,6 @@ public class DatePicker extends FrameLayout {
     private static final int DEFAULT_START_YEAR = 2015;
     private static final int DEFAULT_END_YEAR = 2020;
 
-    // This ignores Undecimber, but we only support real Gregorian calendars.
-    private static final int NUMBER_OF_MONTHS = 12;
-
     private TextView mDayUnit;
     private TextView mMonthUnit;
     private TextView mYearUnit;
@@ -80,6 +74,13 @@ public class DatePicker extends FrameLayout {
      */
     private OnDateChangedListener mOnDateChangedListener;
 
+    /**
+     * How we notify users of the date a fling is likely to settle on.
+     */
+    private OnDateTargetListener mOnDateTargetListener;
+
+    private OnDateFrameStatsListener mOnDateFrameStatsListener;
+
     private int mDay;
     private int mMonth;
     private int mYear;
@@ -87,8 +88,8 @@ public class DatePicker extends FrameLayout {
     private int mStartYear;
     private int mEndYear;
 
-    private Calendar mStartCal;
-    private Calendar mEndCal;
+    // 可选的日期范围
+    private final DateRangeEngine mRange = new DateRangeEngine();
 
     //上一次的年份和上一次的月份，如果年份有变化月份重置
     private int mOldYear;
@@ -96,10 +97,9 @@ public class DatePicker extends FrameLayout {
 
     private String[] mMonths;
     String mOrder;
+    // 当前已应用的日期格式pattern，相同时不再重新排列各列
+    private String mAppliedOrder;
 
-    private Object mMonthUpdateLock = new Object();
-    private volatile Locale mMonthLocale;
-    private String[] mShortMonths;
     /*
      * the position of the current focused row,default is -1 means that the row
      * is align center；normal position is [0, 4] if less then 0，that is 0，if
@@ -129,6 +129,9 @@ public class DatePicker extends FrameLayout {
     String[] mLunardays;
     String mLeap;
 
+    // 每年有通话记录的月份，key为年，value的第n位表示第n个月(0-11)；没有设置的年份不淡化
+    private final SparseIntArray mMonthActivity = new SparseIntArray();
+
     boolean mIsLayoutRtl = false;
     private Typeface mZhTypeface; // 中文使用medium字重
     private Typeface mNumTpyeface; // 其他使用Din-pro-medium字重
@@ -150,48 +153,173 @@ public class DatePicker extends FrameLayout {
                            int dayOfMonth);
     }
 
-    private class DateAdapter implements ScrollTextView.IDataAdapter {
+    /**
+     * The callback used to indicate which date the user is likely to pick,
+     * before the year/month columns have settled.
+     */
+    public interface OnDateTargetListener {
+
+        /**
+         * @param view        The view associated with this listener.
+         * @param year        The year the fling is expected to stop at.
+         * @param monthOfYear The month the fling is expected to stop at (0-11).
+         */
+        void onDateTargetPredicted(DatePicker view, int year, int monthOfYear);
+    }
+
+    /**
+     * The callback used to report the drawing statistics of the year/month
+     * columns after each scrolling, e.g. p50/p95/p99 of the frame time.
+     */
+    public interface OnDateFrameStatsListener {
+
+        /**
+         * @param view         The view associated with this listener.
+         * @param isYearColumn true for the year column, false for the month column.
+         * @param stats        The statistics accumulated so far, may be reset by the callee.
+         */
+        void onDateFrameStats(DatePicker view, boolean isYearColumn, FrameTimeHistogram stats);
+    }
+
+    /*
+     * 把年、月列的快速滑动目标项转换成日期
+     */
+    private final ScrollTextView.OnScrollTextViewTargetListener mTargetListener =
+            new ScrollTextView.OnScrollTextViewTargetListener() {
+        @Override
+        public void onTargetPredicted(ScrollTextView view, int targetItem) {
+            if (mOnDateTargetListener == null) {
+                return;
+            }
+            int year = mYear;
+            int month = mMonth;
+            if (view == mYearPicker) {
+                year = targetItem + mStartYear;
+                if (mRange.hasRange() && mRange.getStartYear() == year && month < mRange.getStartMonth()) {
+                    month = mRange.getStartMonth();
+                }
+            } else if (view == mMonthPicker) {
+                month = targetItem;
+                if (mRange.hasRange() && mRange.getStartYear() == year) {
+                    month += mRange.getStartMonth();
+                }
+            }
+            mOnDateTargetListener.onDateTargetPredicted(DatePicker.this, year, month);
+        }
+    };
+
+    /*
+     * 把年、月列的绘制耗时统计转发给OnDateFrameStatsListener
+     */
+    private final ScrollTextView.OnScrollTextViewFrameStatsListener mFrameStatsListener =
+            new ScrollTextView.OnScrollTextViewFrameStatsListener() {
+        @Override
+        public void onFrameStats(ScrollTextView view, FrameTimeHistogram stats) {
+            if (mOnDateFrameStatsListener != null) {
+                mOnDateFrameStatsListener.onDateFrameStats(DatePicker.this, view == mYearPicker, stats);
+            }
+        }
+    };
+
+    private class DateAdapter implements ScrollTextView.IStateDataAdapter {
         final static int SET_YEAR = 1;
         final static int SET_MONTH = 2;
         final static int SET_DAY = 3;
         int mType = 0;
 
+        // 预先生成的显示文字，只在范围或语言改变时重建，绘制时直接取用
+        private String[] mTexts;
+        private int mTextsFrom;
+        private int mTextsTo;
+        private Object mTextsSource;
+
         DateAdapter(int i) {
             mType = i;
         }
 
         @Override
         public String getItemText(int position) {
+            String[] texts = getTexts();
+            if (texts != null && position >= 0 && position < texts.length) {
+                return texts[position];
+            }
+            return null;
+        }
+
+        @Override
+        public boolean isItemDimmed(int position) {
             switch (mType) {
-                case SET_YEAR:
-                    return String.valueOf(position + mStartYear);
+                case SET_YEAR: {
+                    int index = mMonthActivity.indexOfKey(position + mStartYear);
+                    return index >= 0 && mMonthActivity.valueAt(index) == 0;
+                }
 
-                case SET_MONTH:
+                case SET_MONTH: {
+                    int index = mMonthActivity.indexOfKey(mYear);
+                    if (index < 0) {
+                        return false;
+                    }
+                    if (mRange.hasRange() && mRange.getStartYear() == mYear) {
+                        position += mRange.getStartMonth();
+                    }
+                    return (mMonthActivity.valueAt(index) & (1 << position)) == 0;
+                }
 
+                default:
+                    return false;
+            }
+        }
 
-                        if (mStartCal != null && mStartCal.get(Calendar.YEAR) == mYear) {
-                            position += mStartCal.get(Calendar.MONTH);
-                        }
-                        if (position < mMonths.length) {
-                            return mMonths[position];
-                        }
+        /*
+         * 获取当前范围下的显示文字，范围或语言改变时重建
+         */
+        private String[] getTexts() {
+            int from;
+            int to;
+            Object source;
+            switch (mType) {
+                case SET_YEAR:
+                    from = mStartYear;
+                    to = mEndYear + 1;
+                    source = null;
+                    break;
 
+                case SET_MONTH:
+                    from = 0;
+                    if (mRange.hasRange() && mRange.getStartYear() == mYear) {
+                        from = mRange.getStartMonth();
+                    }
+                    to = mMonths.length;
+                    source = mMonths;
                     break;
 
                 case SET_DAY:
-
-                        if (mStartCal != null && mStartCal.get(Calendar.YEAR) == mYear && mStartCal.get(Calendar.MONTH) == mMonth) {
-                            return mGregorianDays[position + mStartCal.get(Calendar.DAY_OF_MONTH)];
-                        } else {
-                            return mGregorianDays[position + 1];
-                        }
-
+                    from = 1;
+                    if (mRange.hasRange() && mRange.getStartYear() == mYear && mRange.getStartMonth() == mMonth) {
+                        from = mRange.getStartDay();
+                    }
+                    to = mGregorianDays.length;
+                    source = mGregorianDays;
+                    break;
 
                 default:
-                    break;
+                    return null;
             }
 
-            return null;
+            if (mTexts == null || mTextsFrom != from || mTextsTo != to || mTextsSource != source) {
+                if (source == null) {
+                    mTexts = new String[Math.max(to - from, 0)];
+                    for (int i = 0; i < mTexts.length; i++) {
+                        mTexts[i] = String.valueOf(from + i);
+                    }
+                } else {
+                    mTexts = Arrays.copyOfRange((String[]) source, Math.min(from, to), to);
+                }
+                mTextsFrom = from;
+                mTextsTo = to;
+                mTextsSource = source;
+            }
+            return mTexts;
         }
 
         @Override
@@ -202,9 +330,9 @@ public class DatePicker extends FrameLayout {
             switch (mType) {
                 case SET_YEAR:
                     mYear = toNew + mStartYear;
-                    if (mStartCal != null && mStartCal.get(Calendar.YEAR) == mYear) {
-                        if (mMonth < mStartCal.get(Calendar.MONTH)) {
-                            mMonth = mStartCal.get(Calendar.MONTH);
+                    if (mRange.hasRange() && mRange.getStartYear() == mYear) {
+                        if (mMonth < mRange.getStartMonth()) {
+                            mMonth = mRange.getStartMonth();
                         }
                     }
 
@@ -236,8 +364,8 @@ public class DatePicker extends FrameLayout {
 
                 case SET_MONTH:
                     mMonth = toNew;
-                    if (mStartCal != null && mStartCal.get(Calendar.YEAR) == mYear) {
-                        mMonth += mStartCal.get(Calendar.MONTH);
+                    if (mRange.hasRange() && mRange.getStartYear() == mYear) {
+                        mMonth += mRange.getStartMonth();
                     }
 //                    if (maxdays != getMonthDays() && mDayPicker != null) {
 //                        maxdays = getMonthDays();
@@ -253,8 +381,8 @@ public class DatePicker extends FrameLayout {
                     break;
                 case SET_DAY:
                     mDay = toNew + 1;
-                    if (mStartCal != null && mStartCal.get(Calendar.YEAR) == mYear && mStartCal.get(Calendar.MONTH) == mMonth) {
-                        mDay = toNew + mStartCal.get(Calendar.DAY_OF_MONTH);
+                    if (mRange.hasRange() && mRange.getStartYear() == mYear && mRange.getStartMonth() == mMonth) {
+                        mDay = toNew + mRange.getStartDay();
                     }
                     break;
                 default:
@@ -277,7 +405,7 @@ public class DatePicker extends FrameLayout {
 
     private void setMonthRange(int year) {
         // 判断当前月是否在限制内
-        if (mStartCal == null || mEndCal == null) {
+        if (!mRange.hasRange()) {
             return;
         }
         if (mOldYear == year) {
@@ -286,44 +414,10 @@ public class DatePicker extends FrameLayout {
         mOldYear = year;
         mOldMonth = -1;
 
-        if (mStartCal.get(Calendar.YEAR) <= year && mEndCal.get(Calendar.YEAR) >= year) {
-            // 获取当前月内的日限制,时间限制在同一个月内
-            int count = 0, currentItem = (mMonth - mStartCal.get(Calendar.MONTH)) < 0 ? 0 : mMonth - mStartCal.get(Calendar.MONTH);// mStartCal.get(Calendar.MONTH);
-            int validStart = 0, validEnd = 0;
-            boolean isCyclic = false;
-            if (mStartCal.get(Calendar.YEAR) == year && mEndCal.get(Calendar.YEAR) == year) {
-                //  等于　startCal  endCal
-                count = mEndCal.get(Calendar.MONTH) - mStartCal.get(Calendar.MONTH) + 1;
-                validStart = 0;
-                validEnd = count;
-            } else if (mStartCal.get(Calendar.YEAR) == year) {
-                // 等于startCal  小于endCal
-                count = mStartCal.getActualMaximum(Calendar.MONTH) + 1 - mStartCal.get(Calendar.MONTH);
-                validStart = 0;
-                validEnd = count;
-            } else if (mEndCal.get(Calendar.YEAR) == year) {
-                // 大于startCal 等于endCal
-                currentItem = (mEndCal.get(Calendar.MONTH) - mMonth) < 0 ? 0 : mMonth;
-                count = 1 + mEndCal.get(Calendar.MONTH);
-                validStart = 0;
-                validEnd = mEndCal.get(Calendar.MONTH);
-            } else {
-                // 大于startCal 小于endCal 在这个区间内，并且是循环状态下，就不再重新设置时间
-                if(mMonthPicker.isCyclic()){
-                    return;
-                }
-                currentItem = mMonth;
-                count = mStartCal.getActualMaximum(Calendar.MONTH) + 1;
-                validStart = 0;
-                validEnd = mStartCal.getActualMaximum(Calendar.MONTH);
-                isCyclic = true;
-            }
-            // 判断如果时满月状态，让它循环滑动
-            if (count == mStartCal.getActualMaximum(Calendar.MONTH) + 1) {
-                isCyclic = true;
-            }
-            mMonthPicker.setCyclic(isCyclic);
-            mMonthPicker.refreshData(count, currentItem, validStart, validEnd);
+        if (mRange.computeMonthRange(year, mMonth, mMonthPicker.isCyclic())) {
+            mMonthPicker.setCyclic(mRange.isCyclic());
+            mMonthPicker.refreshData(mRange.getCount(), mRange.getCurrentItem(),
+                    mRange.getValidStart(), mRange.getValidEnd());
         }
     }
 
@@ -331,96 +425,20 @@ public class DatePicker extends FrameLayout {
     private void setDayRange(int month) {
 
         // 判断当前月是否在限制内
-        if (mStartCal == null || mEndCal == null) {
+        if (!mRange.hasRange()) {
             return;
         }
         if (mOldYear == mYear && mOldMonth == month) {
             return;
         }
         mOldMonth = month;
-        Calendar currentCalendar = getCurrentCalendar();
-        int count = getMonthDays(), currentItem = mDay - 1;
-        int validStart = 0;
-        int validEnd = currentCalendar.getActualMaximum(Calendar.DAY_OF_MONTH);
-        boolean isCyclic = true;
-
-        /** 不在开始，也不在结束的年份，不受限制: 2011-03-14, 2014-04-13  if当前mYear为2012,则不受任何限制
-         * if 在2011,受开始年份限制，if在2014，则结束年份受限制
-         */
-        if (mStartCal.get(Calendar.YEAR) == mYear && mEndCal.get(Calendar.YEAR) != mYear) {
-            // 当前年份和开始年份相等，和结束年份不相等，对开始年的月份进行限制
-            if (mStartCal.get(Calendar.MONTH) == month) {
-                currentItem = (currentItem - mStartCal.get(Calendar.DAY_OF_MONTH)) < 0 ? 0 : currentItem - mStartCal.get(Calendar.DAY_OF_MONTH) + 1;
-                count = mStartCal.getActualMaximum(Calendar.DAY_OF_MONTH) - mStartCal.get(Calendar.DAY_OF_MONTH) + 1;
-                validStart = 0;
-                validEnd = count;
-                if (count == mStartCal.getActualMaximum(Calendar.DAY_OF_MONTH)) {
-                    isCyclic = true;
-                } else {
-                    isCyclic = false;
-                }
-            }
-        } else if (mStartCal.get(Calendar.YEAR) != mYear && mEndCal.get(Calendar.YEAR) == mYear) {
-            //　当前年份和开始年份不想等，和结束年份相等,判断结束年的月份进行限制
-            if (mEndCal.get(Calendar.MONTH) == month) {
-                currentItem = currentItem >= mEndCal.get(Calendar.DAY_OF_MONTH) ? mEndCal.get(Calendar.DAY_OF_MONTH) - 1 : currentItem;
-                count = mEndCal.get(Calendar.DAY_OF_MONTH);
-                validStart = 0;
-                validEnd = mEndCal.get(Calendar.DAY_OF_MONTH);
-                if (count == mEndCal.getActualMaximum(Calendar.DAY_OF_MONTH)) {
-                    isCyclic = true;
-                } else {
-                    isCyclic = false;
-                }
-            }
-        } else if (mStartCal.get(Calendar.YEAR) == mYear && mEndCal.get(Calendar.YEAR) == mYear) {
-            //　当前年份和开始年份，结束年份都相等
-            if (mStartCal.get(Calendar.MONTH) <= month && mEndCal.get(Calendar.MONTH) >= month) {
-                // 获取当前月内的日限制,时间限制在同一个月内
-                if (mStartCal.get(Calendar.MONTH) == month && mEndCal.get(Calendar.MONTH) == month) {
-                    //  等于　startCal  endCal
-                    //判断如果当前时间小于限制时间，自动调节到起始时间
-                    currentItem = (currentItem - mStartCal.get(Calendar.DAY_OF_MONTH)) < 0 ? 0 : currentItem - mStartCal.get(Calendar.DAY_OF_MONTH) + 1;
-                    count = mEndCal.get(Calendar.DAY_OF_MONTH) - mStartCal.get(Calendar.DAY_OF_MONTH) + 1;
-                    validStart = 0;
-                    validEnd = count;
-                    isCyclic = false;
-                    if (count == mEndCal.getActualMaximum(Calendar.DAY_OF_MONTH)) {
-                        isCyclic = true;
-                    } else {
-                        isCyclic = false;
-                    }
-                } else if (mStartCal.get(Calendar.MONTH) == month) {
-                    // 等于startCal  小于endCal
-                    currentItem = (currentItem - mStartCal.get(Calendar.DAY_OF_MONTH)) < 0 ? 0 : currentItem - mStartCal.get(Calendar.DAY_OF_MONTH) + 1;
-                    count = mStartCal.getActualMaximum(Calendar.DAY_OF_MONTH) - mStartCal.get(Calendar.DAY_OF_MONTH) + 1;
-                    validStart = 0;
-                    validEnd = count;
-                    if (count == mStartCal.getActualMaximum(Calendar.DAY_OF_MONTH)) {
-                        isCyclic = true;
-                    } else {
-                        isCyclic = false;
-                    }
-                } else if (mEndCal.get(Calendar.MONTH) == month) {
-                    // 大于startCal 等于endCal
-                    currentItem = currentItem >= mEndCal.get(Calendar.DAY_OF_MONTH) ? mEndCal.get(Calendar.DAY_OF_MONTH) - 1 : currentItem;
-                    count = mEndCal.get(Calendar.DAY_OF_MONTH);
-                    validStart = 0;
-                    validEnd = mEndCal.get(Calendar.DAY_OF_MONTH);
-                    if (count == mEndCal.getActualMaximum(Calendar.DAY_OF_MONTH)) {
-                        isCyclic = true;
-                    } else {
-                        isCyclic = false;
-                    }
-                }
-            }
-        }
+        mRange.computeDayRange(mYear, month, mDay);
 //        //当已经是循环方式时，不再刷新重设时间
-//        if(isCyclic&&mDayPicker.isCyclic()){
+//        if(mRange.isCyclic()&&mDayPicker.isCyclic()){
 //            return;
 //        }
-//        mDayPicker.setCyclic(isCyclic);
-//        mDayPicker.refreshData(count, currentItem, validStart, validEnd - 1);
+//        mDayPicker.setCyclic(mRange.isCyclic());
+//        mDayPicker.refreshData(mRange.getCount(), mRange.getCurrentItem(), mRange.getValidStart(), mRange.getValidEnd() - 1);
     }
 
     public DatePicker(Context context) {
@@ -435,8 +453,9 @@ public class DatePicker extends FrameLayout {
         super(context, attrs, defStyle);
         // 不使用2D加速
         // setLayerType(View.LAYER_TYPE_SOFTWARE, null);
-        mZhTypeface = Typeface.create("sans-serif-medium", Typeface.NORMAL);
-        mNumTpyeface = Typeface.create("DINPro-medium", Typeface.NORMAL);
+        DatePickerResources resources = DatePickerResources.get(context);
+        mZhTypeface = DatePickerResources.getZhTypeface();
+        mNumTpyeface = DatePickerResources.getNumTypeface();
 
         mWordNormalTextSizes = new ArrayList<>();
         mWordNormalTextSizes.add(context.getResources().getDimension(R.dimen.mc_picker_normal_word_size_one));
@@ -514,6 +533,8 @@ public class DatePicker extends FrameLayout {
                 mMonth, 12, mOneScreenCount, 0, 11, true);
 
         mYearPicker = (ScrollTextView) findViewById(R.id.mc_scroll3);
+        mYearPicker.addTargetListener(mTargetListener);
+        mMonthPicker.addTargetListener(mTargetListener);
         if (mSelectItemHeight != 0 && mNormalItemHeight != 0) {
             mYearPicker.setItemHeight((int) mSelectItemHeight,
                     (int) mNormalItemHeight);
@@ -522,22 +543,9 @@ public class DatePicker extends FrameLayout {
         refreshTextPreference();
 
         updateYearPicker();
-        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd");
-        try {
-            mStartCal = Calendar.getInstance();
-            mStartCal.setTime(df.parse(mStartYear + "-01-01"));
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        try {
-            mEndCal = Calendar.getInstance();
-            mEndCal.setTime(df.parse(mEndYear + "-12-31"));
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
+        mRange.setStart(mStartYear, Calendar.JANUARY, 1);
+        mRange.setEnd(mEndYear, Calendar.DECEMBER, 31);
 
-        // re-order the number pickers to match the current date format
-        reorderPickers(mMonths);
         boolean isZh = isZh();
 //        mDayUnit.setVisibility(isZh ? VISIBLE : GONE);
         mMonthUnit.setVisibility(isZh ? VISIBLE : GONE);
@@ -545,19 +553,10 @@ public class DatePicker extends FrameLayout {
 
         adjustLayout4FocusedPosition();
 
-        // 根据字体大小动态调整年、月、日的PaddingTop
-        int textUnitPaddingTop = mYearUnit.getPaddingTop();
-        DisplayMetrics displayMetrics = new DisplayMetrics();
-        displayMetrics.setToDefaults();
-        float defaultScaledDensity = displayMetrics.scaledDensity;
-        float nowScaledDensity = getResources().getDisplayMetrics().scaledDensity;
-        float paddingTopOffset = (mYearUnit.getTextSize() / nowScaledDensity) * (nowScaledDensity - defaultScaledDensity) / 1.3f;
-        mYearUnit.setPadding(mYearUnit.getPaddingLeft(), (int) (textUnitPaddingTop - paddingTopOffset),
-                mYearUnit.getPaddingRight(), mYearUnit.getPaddingBottom());
-        mMonthUnit.setPadding(mMonthUnit.getPaddingLeft(), (int) (textUnitPaddingTop - paddingTopOffset),
-                mMonthUnit.getPaddingRight(), mMonthUnit.getPaddingBottom());
-//        mDayUnit.setPadding(mDayUnit.getPaddingLeft(), (int) (textUnitPaddingTop - paddingTopOffset),
-//                mDayUnit.getPaddingRight(), mDayUnit.getPaddingBottom());
+        // re-order the number pickers to match the current date format
+        reorderPickers();
+        adjustUnitPaddingTop();
+        getLinePaint();
 
         if (!isEnabled()) {
             setEnabled(false);
@@ -565,32 +564,12 @@ public class DatePicker extends FrameLayout {
 
         mLineOneHeight = 0;
         mLineTwoHeight = 0;
-        mWidthPadding = context.getResources().getDimensionPixelSize(R.dimen.mc_custom_time_picker_line_width_padding);
-        mLinePaint = new Paint();
-
-
-        int lineColor = getResources().getColor(R.color.gregorian_color);
-        mLinePaint.setColor(lineColor);
-        mLinePaint.setAntiAlias(true);
-        mLinePaint.setStrokeWidth(context.getResources().getDimensionPixelSize(R.dimen.mc_custom_time_picker_line_stroke_width));
         mIsDrawLine = false;
         setWillNotDraw(false);
 
-        mLunarMouths = getResources().getStringArray(R.array.mc_custom_time_picker_lunar_month);
-        mLunardays = getResources().getStringArray(R.array.mc_custom_time_picker_lunar_day);
-        mGregorianDays = new String[100];
-        for (int i=0; i<100; i++) {
-            mGregorianDays[i] = String.valueOf(i);
-            if (isZh()) {
-                mGregorianDays[i] = String.valueOf(i);
-            }
-            if (i <= 9) {
-                mGregorianDays[i] = "0" + mGregorianDays[i];
-            }
-        }
-
-
-
+        mLunarMouths = resources.getLunarMonths();
+        mLunardays = resources.getLunarDays();
+        mGregorianDays = resources.getGregorianDays();
 
         AccessibilityManager accessibilityManager = (AccessibilityManager) context.getSystemService(Context.ACCESSIBILITY_SERVICE);
         if (accessibilityManager != null) {
@@ -601,7 +580,35 @@ public class DatePicker extends FrameLayout {
         }
     }
 
+    /*
+     * 根据字体大小动态调整年、月、日的PaddingTop
+     */
+    private void adjustUnitPaddingTop() {
+        int textUnitPaddingTop = mYearUnit.getPaddingTop();
+        DisplayMetrics displayMetrics = new DisplayMetrics();
+        displayMetrics.setToDefaults();
+        float defaultScaledDensity = displayMetrics.scaledDensity;
+        float nowScaledDensity = getResources().getDisplayMetrics().scaledDensity;
+        float paddingTopOffset = (mYearUnit.getTextSize() / nowScaledDensity) * (nowScaledDensity - defaultScaledDensity) / 1.3f;
+        mYearUnit.setPadding(mYearUnit.getPaddingLeft(), (int) (textUnitPaddingTop - paddingTopOffset),
+                mYearUnit.getPaddingRight(), mYearUnit.getPaddingBottom());
+        mMonthUnit.setPadding(mMonthUnit.getPaddingLeft(), (int) (textUnitPaddingTop - paddingTopOffset),
+                mMonthUnit.getPaddingRight(), mMonthUnit.getPaddingBottom());
+//        mDayUnit.setPadding(mDayUnit.getPaddingLeft(), (int) (textUnitPaddingTop - paddingTopOffset),
+//                mDayUnit.getPaddingRight(), mDayUnit.getPaddingBottom());
+    }
 
+    private Paint getLinePaint() {
+        if (mLinePaint == null) {
+            mLinePaint = new Paint();
+            int lineColor = getResources().getColor(R.color.gregorian_color);
+            mLinePaint.setColor(lineColor);
+            mLinePaint.setAntiAlias(true);
+            mLinePaint.setStrokeWidth(getResources().getDimensionPixelSize(R.dimen.mc_custom_time_picker_line_stroke_width));
+            mWidthPadding = getResources().getDimensionPixelSize(R.dimen.mc_custom_time_picker_line_width_padding);
+        }
+        return mLinePaint;
+    }
 
     @Override
     public void setEnabled(boolean enabled) {
@@ -617,27 +624,14 @@ public class DatePicker extends FrameLayout {
         info.setClassName(DatePicker.class.getName());
     }
 
-    private void reorderPickers(String[] months) {
-        /*
-         * If the user is in a locale where the medium date format is still
-         * numeric (Japanese and Czech, for example), respect the date format
-         * order setting. Otherwise, use the order that the locale says is
-         * appropriate for a spelled-out date.
-         */
-
-        java.text.DateFormat format;
-        if (months[0].startsWith("1")) {
-            format = DateFormat.getDateFormat(getContext());
-        } else {
-            format = DateFormat.getMediumDateFormat(getContext());
-        }
-
-        if (format instanceof SimpleDateFormat) {
-            mOrder = ((SimpleDateFormat) format).toPattern();
-        } else {
-            // Shouldn't happen, but just in case.
-            mOrder = new String(DateFormat.getDateFormatOrder(getContext()));
+    private void reorderPickers() {
+        String order = DatePickerResources.get(getContext()).getDateOrder(getContext());
+        if (order.equals(mAppliedOrder)) {
+            // 顺序没有变化，不需要removeAllViews重新布局
+            return;
         }
+        mAppliedOrder = order;
+        mOrder = order;
 
         /*
          * Remove the 3 pickers from their parent and then add them back in the
@@ -765,38 +759,12 @@ public class DatePicker extends FrameLayout {
 //        mDayPicker.setCurrentItem(mDay - 1, doAnimate);
 
         if (isReorderPickers) {
-            reorderPickers(mMonths);
+            reorderPickers();
         }
     }
 
     private String[] getShortMonths() {
-        final Locale currentLocale = Locale.getDefault();
-        if (currentLocale.equals(mMonthLocale) && mShortMonths != null) {
-            return mShortMonths;
-        } else {
-            synchronized (mMonthUpdateLock) {
-                if (!currentLocale.equals(mMonthLocale)) {
-                    mShortMonths = new String[NUMBER_OF_MONTHS];
-                    for (int i = 0; i < NUMBER_OF_MONTHS; i++) {
-                        mShortMonths[i] = DateUtils.getMonthString(
-                                Calendar.JANUARY + i, DateUtils.LENGTH_MEDIUM);
-                    }
-
-
-                    if (mShortMonths[0].startsWith("1")) {
-                        for (int i = 0; i < mShortMonths.length; i++) {
-                            mShortMonths[i] = String.valueOf(i + 1);
-                            if (i < 9) {
-                                mShortMonths[i] = "0" + mShortMonths[i];
-                            }
-                        }
-                    }
-                    mMonthLocale = currentLocale;
-                }
-            }
-
-            return mShortMonths;
-        }
+        return DatePickerResources.get(getContext()).getShortMonths();
     }
 
     @Override
@@ -804,11 +772,12 @@ public class DatePicker extends FrameLayout {
         super.onDraw(canvas);
 
         if (mIsDrawLine) {
+            Paint linePaint = getLinePaint();
             int width = getWidth();
             int pickerWidth = mPickerHolder.getWidth() - mWidthPadding * 2;
             int paddingWdith = (width - pickerWidth) / 2;
-            canvas.drawLine(paddingWdith, mLineOneHeight, paddingWdith + pickerWidth, mLineOneHeight, mLinePaint);
-            canvas.drawLine(paddingWdith, mLineTwoHeight, paddingWdith + pickerWidth, mLineTwoHeight, mLinePaint);
+            canvas.drawLine(paddingWdith, mLineOneHeight, paddingWdith + pickerWidth, mLineOneHeight, linePaint);
+            canvas.drawLine(paddingWdith, mLineTwoHeight, paddingWdith + pickerWidth, mLineTwoHeight, linePaint);
         }
     }
 
@@ -954,6 +923,41 @@ public class DatePicker extends FrameLayout {
         sendAccessibilityEvent();
     }
 
+    /**
+     * Set the listener to be notified when the user changes the date.
+     *
+     * @param onDateChangedListener How user is notified date is changed by user, can be null.
+     */
+    public void setOnDateChangedListener(OnDateChangedListener onDateChangedListener) {
+        mOnDateChangedListener = onDateChangedListener;
+    }
+
+    /**
+     * Set the listener to be notified of the date a fling is likely to settle on.
+     *
+     * @param onDateTargetListener the listener, can be null.
+     */
+    public void setOnDateTargetListener(OnDateTargetListener onDateTargetListener) {
+        mOnDateTargetListener = onDateTargetListener;
+    }
+
+    /**
+     * Set the listener to be notified of the drawing statistics of the year/month
+     * columns. Statistics are only recorded while a listener is set.
+     *
+     * @param onDateFrameStatsListener the listener, can be null.
+     */
+    public void setOnDateFrameStatsListener(OnDateFrameStatsListener onDateFrameStatsListener) {
+        if (onDateFrameStatsListener != null && mOnDateFrameStatsListener == null) {
+            mYearPicker.addFrameStatsListener(mFrameStatsListener);
+            mMonthPicker.addFrameStatsListener(mFrameStatsListener);
+        } else if (onDateFrameStatsListener == null && mOnDateFrameStatsListener != null) {
+            mYearPicker.removeFrameStatsListener(mFrameStatsListener);
+            mMonthPicker.removeFrameStatsListener(mFrameStatsListener);
+        }
+        mOnDateFrameStatsListener = onDateFrameStatsListener;
+    }
+
     public int getYear() {
         return mYear;
     }
@@ -973,27 +977,9 @@ public class DatePicker extends FrameLayout {
             return;
         }
 
-        java.text.DateFormat format;
-        String order;
-        final String[] months = getShortMonths();
-        if (months[0].startsWith("1")) {
-            format = DateFormat.getDateFormat(getContext());
-        } else {
-            format = DateFormat.getMediumDateFormat(getContext());
-        }
-
-        if (format instanceof SimpleDateFormat) {
-            order = ((SimpleDateFormat) format).toPattern();
-        } else {
-            order = new String(DateFormat.getDateFormatOrder(getContext()));
-        }
-
-        if (mOrder.equals(order)) {
-            return;
-        }
-
-        mMonths = months;
-        reorderPickers(mMonths);
+        // 语言改变时重新排列，否则reorderPickers直接返回
+        mMonths = getShortMonths();
+        reorderPickers();
     }
 
     private void updateYearPicker() {
@@ -1009,11 +995,8 @@ public class DatePicker extends FrameLayout {
      * @param maxDate
      */
     public void setMaxDate(long maxDate) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(maxDate);
-        mEndCal = cal;
-        int newYear = cal.get(Calendar.YEAR);
-        mEndYear = newYear;
+        mRange.setEnd(maxDate);
+        mEndYear = mRange.getEndYear();
         refresh();
     }
 
@@ -1031,11 +1014,8 @@ public class DatePicker extends FrameLayout {
      * @param minDate
      */
     public void setMinDate(long minDate) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(minDate);
-        mStartCal = cal;
-        int newYear = cal.get(Calendar.YEAR);
-        mStartYear = newYear;
+        mRange.setStart(minDate);
+        mStartYear = mRange.getStartYear();
         refresh();
     }
 
@@ -1046,21 +1026,7 @@ public class DatePicker extends FrameLayout {
     }
 
     private int getMonthDays() {
-
-            Calendar cal = Calendar.getInstance();
-            cal.set(Calendar.DATE, 1);
-            cal.set(Calendar.YEAR, mYear);
-            cal.set(Calendar.MONTH, mMonth);
-            return cal.getActualMaximum(Calendar.DAY_OF_MONTH);
-
-    }
-
-    private Calendar getCurrentCalendar() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DATE, 1);
-        cal.set(Calendar.YEAR, mYear);
-        cal.set(Calendar.MONTH, mMonth);
-        return cal;
+        return DateRangeEngine.getMonthDays(mYear, mMonth);
     }
 
     private int getYearMonths() {
@@ -1130,12 +1096,39 @@ public class DatePicker extends FrameLayout {
 //        return mDayUnit;
 //    }
 
+    /**
+     * 设置某一年中有数据的月份，没有数据的月份（全年都没有时还包括年份）淡化显示
+     *
+     * @param year      年
+     * @param monthMask 第n位为1表示第n个月(0-11)有数据
+     */
+    public void setMonthActivity(int year, int monthMask) {
+        mMonthActivity.put(year, monthMask);
+        mYearPicker.invalidate();
+        mMonthPicker.invalidate();
+    }
+
+    /**
+     * 清除所有年份的月份数据状态，全部正常显示
+     */
+    public void clearMonthActivity() {
+        mMonthActivity.clear();
+        mYearPicker.invalidate();
+        mMonthPicker.invalidate();
+    }
+
     public void setIsDrawFading(boolean isDrawFading) {
         mYearPicker.setIsDrawFading(isDrawFading);
         mMonthPicker.setIsDrawFading(isDrawFading);
 //        mDayPicker.setIsDrawFading(isDrawFading);
     }
 
+    public void setFadingMode(int fadingMode) {
+        mYearPicker.setFadingMode(fadingMode);
+        mMonthPicker.setFadingMode(fadingMode);
+//        mDayPicker.setFadingMode(fadingMode);
+    }
+
     private String getTimeText(int type) {
         int position = 0;
         switch (type) {
@@ -1188,12 +1181,7 @@ public class DatePicker extends FrameLayout {
     }
 
     private boolean isZh() {
-        Locale locale = getResources().getConfiguration().locale;
-        String language = locale.getLanguage();
-        if (language.endsWith("zh"))
-            return true;
-        else
-            return false;
+        return DatePickerResources.get(getContext()).isZh();
     }
 
     private void refreshTextPreference() {
@@ -1226,7 +1214,7 @@ public class DatePicker extends FrameLayout {
                     previewText = year + yearText + month + monthText;
                 }
             } else { // 其他语言
-                String[] mouths = getResources().getStringArray(R.array.mc_custom_time_picker_lunar_month);
+                String[] mouths = DatePickerResources.get(getContext()).getLunarMonths();
                 if (month > 0 && month <= mouths.length) {
                     if (isShowDay) {
                         previewText = mouths[month-1] + " " + year + "," + dayOfMonth + " " + Utils.getWeek(getContext(), year, month-1, dayOfMonth);
@@ -1238,7 +1226,7 @@ public class DatePicker extends FrameLayout {
         } else {
             String monthString;
 
-            String[] mouths = getResources().getStringArray(R.array.mc_custom_time_picker_lunar_month);
+            String[] mouths = DatePickerResources.get(getContext()).getLunarMonths();
 
 
             monthString = mouths[month-1];
@@ -16,9 +16,14 @@
 
 package com.zhudai.view;
 
+import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.Context;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
@@ -31,6 +36,8 @@ import com.zhudai.view.DatePicker.OnDateChangedListener;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 
@@ -60,6 +67,18 @@ public class DatePickerDialog extends AlertDialog
          */
         void onDateSet(DatePicker view, int year, int monthOfYear, int dayOfMonth);
     }
+
+    /**
+     * The callback used by {@link AsyncBuilder} to hand back a dialog that is ready to show.
+     */
+    public interface OnDialogReadyListener {
+        /**
+         * Called on the main thread.
+         *
+         * @param dialog The dialog whose view tree has been inflated and initialized.
+         */
+        void onDialogReady(DatePickerDialog dialog);
+    }
     
     /**
      * @param context The context the dialog is to run in.
@@ -109,6 +128,20 @@ public class DatePickerDialog extends AlertDialog
             int year,
             int monthOfYear,
             int dayOfMonth, boolean isLunar, boolean isLeapMonth) {
+        this(context, theme, callBack,
+                inflateContentView(context, year, monthOfYear, dayOfMonth, isLunar, isLeapMonth));
+    }
+
+    /**
+     * @param context The context the dialog is to run in.
+     * @param theme the theme to apply to this dialog
+     * @param callBack How the parent is notified that the date is set.
+     * @param view The content view created by {@link #inflateContentView}.
+     */
+    private DatePickerDialog(Context context,
+            int theme,
+            OnDateSetListener callBack,
+            View view) {
         super(context, theme);
 
         mCallBack = callBack;
@@ -116,19 +149,34 @@ public class DatePickerDialog extends AlertDialog
 //        setButton(BUTTON_POSITIVE, context.getText(R.string.mc_yes), this);
 //        setButton(BUTTON_NEGATIVE, context.getText(android.R.string.cancel), (OnClickListener) null);
 
-        LayoutInflater inflater =
-                (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-        View view = inflater.inflate(R.layout.mc_date_picker_dialog, null);
         Button positive = (Button) view.findViewById(R.id.positive);
         Button cancel = (Button)view.findViewById(R.id.negative);
         positive.setOnClickListener(this);
         cancel.setOnClickListener(this);
         setView(view);
 
-
         mDatePicker = (DatePicker) view.findViewById(R.id.datePicker);
-        mDatePicker.init(year, monthOfYear, dayOfMonth, this, isLunar, isLeapMonth);
+        mDatePicker.setOnDateChangedListener(this);
 
+        mTimerPreview = (TextView) view.findViewById(R.id.time_preview);
+        mTimerPreview.setText(mDatePicker.getTimePreviewText(mDatePicker.isLunar(), mDatePicker.getYear(), mDatePicker.getMonth(), mDatePicker.getDayOfMonth(), mIsShowDay));
+    }
+
+    /*
+     * inflate对话框布局并初始化DatePicker，不依赖对话框本身，可以在后台线程执行
+     */
+    private static View inflateContentView(Context context,
+            int year,
+            int monthOfYear,
+            int dayOfMonth, boolean isLunar, boolean isLeapMonth) {
+        LayoutInflater inflater =
+                (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+        View view = inflater.inflate(R.layout.mc_date_picker_dialog, null);
+
+        DatePicker datePicker = (DatePicker) view.findViewById(R.id.datePicker);
+        datePicker.init(year, monthOfYear, dayOfMonth, null, isLunar, isLeapMonth);
+
+        // 颜色随夜间模式等配置变化，每次从当前context读取，不放入按Locale缓存的DatePickerResources
         final int selectColor = context.getResources().getColor(
                 R.color.mc_picker_selected_color);
         List<Integer> unSelectColors = new ArrayList<>();
@@ -136,14 +184,131 @@ public class DatePickerDialog extends AlertDialog
                 R.color.mc_picker_unselected_color_one));
         unSelectColors.add(context.getResources().getColor(
                 R.color.mc_picker_unselected_color_two));
-
-        mDatePicker.setTextColor(selectColor, unSelectColors, selectColor);
-        mDatePicker.setIsDrawLine(false);
-        mDatePicker.setLineHeight(context.getResources().getDimensionPixelSize(R.dimen.mc_custom_time_picker_line_one_height),
+        datePicker.setTextColor(selectColor, unSelectColors, selectColor);
+        datePicker.setIsDrawLine(false);
+        datePicker.setLineHeight(context.getResources().getDimensionPixelSize(R.dimen.mc_custom_time_picker_line_one_height),
                 context.getResources().getDimensionPixelSize(R.dimen.mc_custom_time_picker_line_two_height));
+        return view;
+    }
 
-        mTimerPreview = (TextView) view.findViewById(R.id.time_preview);
-        mTimerPreview.setText(mDatePicker.getTimePreviewText(mDatePicker.isLunar(), mDatePicker.getYear(), mDatePicker.getMonth(), mDatePicker.getDayOfMonth(), mIsShowDay));
+    /**
+     * 在后台线程inflate并初始化对话框的布局，完成后在主线程回调可以直接show的对话框
+     */
+    public static class AsyncBuilder {
+
+        private static final String TAG = "DatePickerDialog";
+
+        private static final ExecutorService sExecutor = Executors.newSingleThreadExecutor();
+
+        private final Context mContext;
+        private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+        private int mTheme;
+        private OnDateSetListener mCallBack;
+        private int mYear;
+        private int mMonthOfYear;
+        private int mDayOfMonth;
+        private boolean mIsLunar;
+        private boolean mIsLeapMonth;
+        private volatile boolean mIsCancelled;
+
+        /**
+         * @param context The context the dialog is to run in.
+         */
+        public AsyncBuilder(Context context) {
+            mContext = context;
+            Calendar calendar = Calendar.getInstance();
+            mYear = calendar.get(Calendar.YEAR);
+            mMonthOfYear = calendar.get(Calendar.MONTH);
+            mDayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
+        }
+
+        public AsyncBuilder setTheme(int theme) {
+            mTheme = theme;
+            return this;
+        }
+
+        public AsyncBuilder setOnDateSetListener(OnDateSetListener callBack) {
+            mCallBack = callBack;
+            return this;
+        }
+
+        public AsyncBuilder setDate(int year, int monthOfYear, int dayOfMonth) {
+            mYear = year;
+            mMonthOfYear = monthOfYear;
+            mDayOfMonth = dayOfMonth;
+            return this;
+        }
+
+        public AsyncBuilder setLunar(boolean isLunar, boolean isLeapMonth) {
+            mIsLunar = isLunar;
+            mIsLeapMonth = isLeapMonth;
+            return this;
+        }
+
+        /**
+         * 取消创建，之后不再inflate，也不再回调OnDialogReadyListener
+         * <p>调用方在页面销毁时调用，例如Fragment的onDestroyView。</p>
+         */
+        public void cancel() {
+            mIsCancelled = true;
+        }
+
+        /*
+         * 已取消，或者所在的Activity已经结束
+         */
+        private boolean isCancelled() {
+            if (mIsCancelled) {
+                return true;
+            }
+            if (mContext instanceof Activity) {
+                Activity activity = (Activity) mContext;
+                if (activity.isFinishing()) {
+                    return true;
+                }
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && activity.isDestroyed()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 开始在后台创建，若后台inflate失败则回到主线程创建
+         * @param listener 在主线程回调创建好的对话框，取消后不再回调
+         */
+        public void build(final OnDialogReadyListener listener) {
+            sExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCancelled()) {
+                        return;
+                    }
+                    View view;
+                    try {
+                        view = inflateContentView(mContext, mYear, mMonthOfYear, mDayOfMonth,
+                                mIsLunar, mIsLeapMonth);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "inflate date picker in background failed, retry on main thread", e);
+                        view = null;
+                    }
+                    final View contentView = view;
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (isCancelled()) {
+                                return;
+                            }
+                            View view = contentView;
+                            if (view == null) {
+                                view = inflateContentView(mContext, mYear, mMonthOfYear, mDayOfMonth,
+                                        mIsLunar, mIsLeapMonth);
+                            }
+                            listener.onDialogReady(new DatePickerDialog(mContext, mTheme, mCallBack, view));
+                        }
+                    });
+                }
+            });
+        }
     }
 
     @Override
@@ -197,6 +362,8 @@ public class DatePickerDialog extends AlertDialog
      */
     public void updateDate(int year, int monthOfYear, int dayOfMonth, boolean doAnimate) {
         mDatePicker.updateDate(year, monthOfYear, dayOfMonth, doAnimate);
+        // DatePicker.updateDate不会回调OnDateChangedListener，复用对话框时需要手动刷新预览
+        onDateChanged(mDatePicker, year, monthOfYear, dayOfMonth);
     }
 
     @Override
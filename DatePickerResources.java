@@ -0,0 +1,157 @@
+package com.zhudai.view;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Typeface;
+import android.text.format.DateFormat;
+import android.text.format.DateUtils;
+
+import com.zhudai.R;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DatePicker、DatePickerDialog共用的与语言相关的资源
+ * <p>只缓存随Locale变化的月份、农历、日期文字；颜色等随夜间模式变化的资源不放在这里。
+ * 每个Locale只创建一份，创建后不再修改，所有实例共享；读取时不加锁。
+ * 返回的数组为共享数据，调用方不能修改。</p>
+ */
+final class DatePickerResources {
+
+    // This ignores Undecimber, but we only support real Gregorian calendars.
+    private static final int NUMBER_OF_MONTHS = 12;
+
+    private static final int GREGORIAN_DAYS_COUNT = 100;
+
+    private static final ConcurrentHashMap<Locale, DatePickerResources> sCache =
+            new ConcurrentHashMap<>();
+
+    private static volatile Typeface sZhTypeface; // 中文使用medium字重
+    private static volatile Typeface sNumTypeface; // 其他使用Din-pro-medium字重
+
+    private final boolean mIsZh;
+    private final String[] mShortMonths;
+    private final String[] mLunarMonths;
+    private final String[] mLunarDays;
+    private final String[] mGregorianDays;
+
+    // 决定年、月、日排列顺序的日期格式pattern，首次使用时计算
+    private volatile String mDateOrder;
+
+    /**
+     * 获取当前配置语言对应的资源，首次获取时创建
+     * @param context the context
+     */
+    static DatePickerResources get(Context context) {
+        Resources res = context.getResources();
+        Locale locale = res.getConfiguration().locale;
+        DatePickerResources resources = sCache.get(locale);
+        if (resources == null) {
+            resources = new DatePickerResources(res, locale);
+            DatePickerResources previous = sCache.putIfAbsent(locale, resources);
+            if (previous != null) {
+                resources = previous;
+            }
+        }
+        return resources;
+    }
+
+    static Typeface getZhTypeface() {
+        if (sZhTypeface == null) {
+            sZhTypeface = Typeface.create("sans-serif-medium", Typeface.NORMAL);
+        }
+        return sZhTypeface;
+    }
+
+    static Typeface getNumTypeface() {
+        if (sNumTypeface == null) {
+            sNumTypeface = Typeface.create("DINPro-medium", Typeface.NORMAL);
+        }
+        return sNumTypeface;
+    }
+
+    private DatePickerResources(Resources res, Locale locale) {
+        mIsZh = locale.getLanguage().endsWith("zh");
+
+        String[] shortMonths = new String[NUMBER_OF_MONTHS];
+        for (int i = 0; i < NUMBER_OF_MONTHS; i++) {
+            shortMonths[i] = DateUtils.getMonthString(
+                    Calendar.JANUARY + i, DateUtils.LENGTH_MEDIUM);
+        }
+        if (shortMonths[0].startsWith("1")) {
+            for (int i = 0; i < shortMonths.length; i++) {
+                shortMonths[i] = String.valueOf(i + 1);
+                if (i < 9) {
+                    shortMonths[i] = "0" + shortMonths[i];
+                }
+            }
+        }
+        mShortMonths = shortMonths;
+
+        mLunarMonths = res.getStringArray(R.array.mc_custom_time_picker_lunar_month);
+        mLunarDays = res.getStringArray(R.array.mc_custom_time_picker_lunar_day);
+
+        String[] gregorianDays = new String[GREGORIAN_DAYS_COUNT];
+        for (int i = 0; i < GREGORIAN_DAYS_COUNT; i++) {
+            gregorianDays[i] = String.valueOf(i);
+            if (i <= 9) {
+                gregorianDays[i] = "0" + gregorianDays[i];
+            }
+        }
+        mGregorianDays = gregorianDays;
+    }
+
+    boolean isZh() {
+        return mIsZh;
+    }
+
+    String[] getShortMonths() {
+        return mShortMonths;
+    }
+
+    String[] getLunarMonths() {
+        return mLunarMonths;
+    }
+
+    String[] getLunarDays() {
+        return mLunarDays;
+    }
+
+    String[] getGregorianDays() {
+        return mGregorianDays;
+    }
+
+    /**
+     * 获取决定年、月、日排列顺序的日期格式pattern，每个Locale只解析一次
+     * @param context the context
+     */
+    String getDateOrder(Context context) {
+        String order = mDateOrder;
+        if (order == null) {
+            /*
+             * If the user is in a locale where the medium date format is still
+             * numeric (Japanese and Czech, for example), respect the date format
+             * order setting. Otherwise, use the order that the locale says is
+             * appropriate for a spelled-out date.
+             */
+            java.text.DateFormat format;
+            if (mShortMonths[0].startsWith("1")) {
+                format = DateFormat.getDateFormat(context);
+            } else {
+                format = DateFormat.getMediumDateFormat(context);
+            }
+
+            if (format instanceof SimpleDateFormat) {
+                order = ((SimpleDateFormat) format).toPattern();
+            } else {
+                // Shouldn't happen, but just in case.
+                order = new String(DateFormat.getDateFormatOrder(context));
+            }
+            mDateOrder = order;
+        }
+        return order;
+    }
+}
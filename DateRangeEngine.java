@@ -0,0 +1,259 @@
+package com.zhudai.view;
+
+import java.util.Calendar;
+
+/**
+ * DatePicker月、日滚轮的可选范围计算
+ * <p>起止日期以primitive int保存，每月天数在设置范围时预先算好；
+ * 计算结果写入本对象的字段，计算过程中不创建任何对象。</p>
+ */
+final class DateRangeEngine {
+
+    static final int MONTHS_OF_YEAR = 12;
+
+    private static final int[] DAYS_OF_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private boolean mHasRange = false;
+
+    // 开始日期，month为0-11
+    private int mStartYear;
+    private int mStartMonth;
+    private int mStartDay;
+    private int mStartMonthDays;
+
+    // 结束日期，month为0-11
+    private int mEndYear;
+    private int mEndMonth;
+    private int mEndDay;
+    private int mEndMonthDays;
+
+    // 最近一次计算的结果
+    private int mCount;
+    private int mCurrentItem;
+    private int mValidStart;
+    private int mValidEnd;
+    private boolean mIsCyclic;
+
+    /**
+     * 设置可选的开始日期
+     * @param millis 开始日期的毫秒值
+     */
+    void setStart(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        setStart(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), cal.get(Calendar.DAY_OF_MONTH));
+    }
+
+    /**
+     * 设置可选的结束日期
+     * @param millis 结束日期的毫秒值
+     */
+    void setEnd(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        setEnd(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), cal.get(Calendar.DAY_OF_MONTH));
+    }
+
+    void setStart(int year, int month, int day) {
+        mStartYear = year;
+        mStartMonth = month;
+        mStartDay = day;
+        mStartMonthDays = getMonthDays(year, month);
+        mHasRange = true;
+    }
+
+    void setEnd(int year, int month, int day) {
+        mEndYear = year;
+        mEndMonth = month;
+        mEndDay = day;
+        mEndMonthDays = getMonthDays(year, month);
+        mHasRange = true;
+    }
+
+    boolean hasRange() {
+        return mHasRange;
+    }
+
+    int getStartYear() {
+        return mStartYear;
+    }
+
+    int getStartMonth() {
+        return mStartMonth;
+    }
+
+    int getStartDay() {
+        return mStartDay;
+    }
+
+    int getEndYear() {
+        return mEndYear;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    /**
+     * 获取指定月份的天数
+     * @param year 年
+     * @param month 月，0-11
+     */
+    static int getMonthDays(int year, int month) {
+        if (month == Calendar.FEBRUARY && isLeapYear(year)) {
+            return 29;
+        }
+        return DAYS_OF_MONTH[month];
+    }
+
+    /**
+     * 计算指定年份下月滚轮的范围
+     * @param year 当前年
+     * @param month 当前月，0-11
+     * @param isCyclic 月滚轮当前是否处于循环状态
+     * @return false表示年份不在范围内，或者已处于循环状态无需刷新
+     */
+    boolean computeMonthRange(int year, int month, boolean isCyclic) {
+        if (!mHasRange || mStartYear > year || mEndYear < year) {
+            return false;
+        }
+
+        // 获取当前月内的日限制,时间限制在同一个月内
+        int count;
+        int currentItem = (month - mStartMonth) < 0 ? 0 : month - mStartMonth;
+        int validStart = 0, validEnd;
+        boolean cyclic = false;
+        if (mStartYear == year && mEndYear == year) {
+            //  等于　startCal  endCal
+            count = mEndMonth - mStartMonth + 1;
+            validEnd = count;
+        } else if (mStartYear == year) {
+            // 等于startCal  小于endCal
+            count = MONTHS_OF_YEAR - mStartMonth;
+            validEnd = count;
+        } else if (mEndYear == year) {
+            // 大于startCal 等于endCal
+            currentItem = (mEndMonth - month) < 0 ? 0 : month;
+            count = 1 + mEndMonth;
+            validEnd = mEndMonth;
+        } else {
+            // 大于startCal 小于endCal 在这个区间内，并且是循环状态下，就不再重新设置时间
+            if (isCyclic) {
+                return false;
+            }
+            currentItem = month;
+            count = MONTHS_OF_YEAR;
+            validEnd = MONTHS_OF_YEAR - 1;
+            cyclic = true;
+        }
+        // 判断如果时满月状态，让它循环滑动
+        if (count == MONTHS_OF_YEAR) {
+            cyclic = true;
+        }
+
+        setResult(count, currentItem, validStart, validEnd, cyclic);
+        return true;
+    }
+
+    /**
+     * 计算指定年月下日滚轮的范围
+     * @param year 当前年
+     * @param month 当前月，0-11
+     * @param day 当前日，1-31
+     * @return false表示未设置范围
+     */
+    boolean computeDayRange(int year, int month, int day) {
+        if (!mHasRange) {
+            return false;
+        }
+
+        int count = getMonthDays(year, month), currentItem = day - 1;
+        int validStart = 0;
+        int validEnd = count;
+        boolean cyclic = true;
+
+        /** 不在开始，也不在结束的年份，不受限制: 2011-03-14, 2014-04-13  if当前mYear为2012,则不受任何限制
+         * if 在2011,受开始年份限制，if在2014，则结束年份受限制
+         */
+        if (mStartYear == year && mEndYear != year) {
+            // 当前年份和开始年份相等，和结束年份不相等，对开始年的月份进行限制
+            if (mStartMonth == month) {
+                currentItem = clampToStart(currentItem);
+                count = mStartMonthDays - mStartDay + 1;
+                validEnd = count;
+                cyclic = count == mStartMonthDays;
+            }
+        } else if (mStartYear != year && mEndYear == year) {
+            //　当前年份和开始年份不想等，和结束年份相等,判断结束年的月份进行限制
+            if (mEndMonth == month) {
+                currentItem = clampToEnd(currentItem);
+                count = mEndDay;
+                validEnd = mEndDay;
+                cyclic = count == mEndMonthDays;
+            }
+        } else if (mStartYear == year && mEndYear == year) {
+            //　当前年份和开始年份，结束年份都相等
+            if (mStartMonth <= month && mEndMonth >= month) {
+                if (mStartMonth == month && mEndMonth == month) {
+                    //  等于　startCal  endCal
+                    //判断如果当前时间小于限制时间，自动调节到起始时间
+                    currentItem = clampToStart(currentItem);
+                    count = mEndDay - mStartDay + 1;
+                    validEnd = count;
+                    cyclic = count == mEndMonthDays;
+                } else if (mStartMonth == month) {
+                    // 等于startCal  小于endCal
+                    currentItem = clampToStart(currentItem);
+                    count = mStartMonthDays - mStartDay + 1;
+                    validEnd = count;
+                    cyclic = count == mStartMonthDays;
+                } else if (mEndMonth == month) {
+                    // 大于startCal 等于endCal
+                    currentItem = clampToEnd(currentItem);
+                    count = mEndDay;
+                    validEnd = mEndDay;
+                    cyclic = count == mEndMonthDays;
+                }
+            }
+        }
+
+        setResult(count, currentItem, validStart, validEnd, cyclic);
+        return true;
+    }
+
+    private int clampToStart(int currentItem) {
+        return (currentItem - mStartDay) < 0 ? 0 : currentItem - mStartDay + 1;
+    }
+
+    private int clampToEnd(int currentItem) {
+        return currentItem >= mEndDay ? mEndDay - 1 : currentItem;
+    }
+
+    private void setResult(int count, int currentItem, int validStart, int validEnd, boolean isCyclic) {
+        mCount = count;
+        mCurrentItem = currentItem;
+        mValidStart = validStart;
+        mValidEnd = validEnd;
+        mIsCyclic = isCyclic;
+    }
+
+    int getCount() {
+        return mCount;
+    }
+
+    int getCurrentItem() {
+        return mCurrentItem;
+    }
+
+    int getValidStart() {
+        return mValidStart;
+    }
+
+    int getValidEnd() {
+        return mValidEnd;
+    }
+
+    boolean isCyclic() {
+        return mIsCyclic;
+    }
+}
@@ -0,0 +1,122 @@
+package com.zhudai.view;
+
+/**
+ * ScrollTextView的绘制耗时统计
+ * <p>固定精度的直方图，记录时只做数组计数，不创建对象；
+ * 同时统计滑动步数和滑动过程中丢掉的帧数。</p>
+ */
+public final class FrameTimeHistogram {
+
+    // 每个桶的宽度，250us
+    private static final long BUCKET_NANOS = 250000L;
+    // 桶的个数，覆盖0-64ms，超出的记入最后一个桶
+    private static final int BUCKET_COUNT = 256;
+
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
+
+    private final long[] mBuckets = new long[BUCKET_COUNT + 1];
+    private long mFrameCount;
+    private long mMaxFrameNanos;
+    private long mScrollStepCount;
+    private long mDroppedFrameCount;
+
+    private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    private long mLastVsyncNanos;
+
+    /*
+     * 设置屏幕刷新间隔，用于判断丢帧
+     */
+    void setRefreshRate(float refreshRate) {
+        mFrameIntervalNanos = refreshRate > 0 ? (long) (1000000000L / refreshRate)
+                : DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    /*
+     * 记录一帧onDraw的耗时
+     */
+    void recordFrame(long durationNanos) {
+        int index = (int) Math.min(durationNanos / BUCKET_NANOS, BUCKET_COUNT);
+        mBuckets[index]++;
+        mFrameCount++;
+        if (durationNanos > mMaxFrameNanos) {
+            mMaxFrameNanos = durationNanos;
+        }
+    }
+
+    /*
+     * 记录一次滑动
+     */
+    void recordScrollStep() {
+        mScrollStepCount++;
+    }
+
+    /*
+     * 开始新的一次滑动，之前的vsync时间不再用于判断丢帧
+     */
+    void startScrolling() {
+        mLastVsyncNanos = 0;
+    }
+
+    /*
+     * 记录滑动动画收到的vsync时间，间隔超过1.5帧时计为丢帧
+     */
+    void recordVsync(long frameTimeNanos) {
+        if (mLastVsyncNanos != 0) {
+            long gap = frameTimeNanos - mLastVsyncNanos;
+            if (gap * 2 > mFrameIntervalNanos * 3) {
+                mDroppedFrameCount += (gap + mFrameIntervalNanos / 2) / mFrameIntervalNanos - 1;
+            }
+        }
+        mLastVsyncNanos = frameTimeNanos;
+    }
+
+    /**
+     * 获取绘制耗时的百分位数
+     * @param percentile 0-100，例如50、95、99
+     * @return 耗时（纳秒），精度为250us；没有数据时返回0
+     */
+    public long getPercentileNanos(float percentile) {
+        if (mFrameCount == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(mFrameCount * percentile / 100f);
+        long count = 0;
+        for (int i = 0; i < mBuckets.length; i++) {
+            count += mBuckets[i];
+            if (count >= threshold) {
+                return i == BUCKET_COUNT ? mMaxFrameNanos : (i + 1) * BUCKET_NANOS;
+            }
+        }
+        return mMaxFrameNanos;
+    }
+
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getMaxFrameNanos() {
+        return mMaxFrameNanos;
+    }
+
+    public long getScrollStepCount() {
+        return mScrollStepCount;
+    }
+
+    public long getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void reset() {
+        for (int i = 0; i < mBuckets.length; i++) {
+            mBuckets[i] = 0;
+        }
+        mFrameCount = 0;
+        mMaxFrameNanos = 0;
+        mScrollStepCount = 0;
+        mDroppedFrameCount = 0;
+        mLastVsyncNanos = 0;
+    }
+}
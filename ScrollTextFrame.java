@@ -0,0 +1,243 @@
+package com.zhudai.view;
+
+import java.util.List;
+
+/**
+ * ScrollTextView每一帧的行布局和字体颜色/大小计算
+ * <p>不依赖android.graphics，可以脱离设备在普通JVM上直接调用，
+ * 便于单独测量onDraw -> drawItems -> configTextView的计算开销。</p>
+ */
+final class ScrollTextFrame {
+
+    // 滑动比例的量化级数，样式表按此精度预先计算
+    static final int SCALE_STEPS = 64;
+
+    // 可视项个数
+    private int mVisibleItems;
+
+    private float mSelectItemHeight;
+    private float mNormalItemHeight;
+
+    private float mSelectTextSize;
+    private List<Float> mNormalTextSizes;
+    private int mSelectTextColor;
+    private List<Integer> mNormalTextColors;
+
+    private float mSelectFontMetricsCenterY;
+    private float mNormalFontMetricsCenterY;
+
+    // 样式表，在参数改变后的第一帧重建
+    private boolean mIsTableDirty = true;
+    private float[] mNormalSizes;
+    private int[] mNormalColors;
+    // [折叠后的行号 * (SCALE_STEPS + 1) + 量化后的比例]
+    private int[] mColorTable;
+    private float[] mSizeTable;
+    // 中间两行的字体中心线，按量化后的比例索引
+    private float[] mCenterYTable;
+
+    // configRow的计算结果
+    private int mTextColor;
+    private float mTextSize;
+    private float mFontMetricsCenterY;
+
+    void setVisibleItems(int visibleItems) {
+        mVisibleItems = visibleItems;
+        mIsTableDirty = true;
+    }
+
+    void setItemHeight(float selectItemHeight, float normalItemHeight) {
+        mSelectItemHeight = selectItemHeight;
+        mNormalItemHeight = normalItemHeight;
+        mIsTableDirty = true;
+    }
+
+    void setTextSize(float selectTextSize, List<Float> normalTextSizes) {
+        mSelectTextSize = selectTextSize;
+        mNormalTextSizes = normalTextSizes;
+        mIsTableDirty = true;
+    }
+
+    void setTextColor(int selectTextColor, List<Integer> normalTextColors) {
+        mSelectTextColor = selectTextColor;
+        mNormalTextColors = normalTextColors;
+        mIsTableDirty = true;
+    }
+
+    void setFontMetricsCenterY(float selectCenterY, float normalCenterY) {
+        mSelectFontMetricsCenterY = selectCenterY;
+        mNormalFontMetricsCenterY = normalCenterY;
+        mIsTableDirty = true;
+    }
+
+    /**
+     * 滑动距离和item高度的比例值
+     * @param scrollingOffset 当前滑动偏移
+     */
+    float getScrollScale(int scrollingOffset) {
+        int itemHeight = (int) mNormalItemHeight;
+        int scrolloff = scrollingOffset > 0 ? scrollingOffset
+                : itemHeight + scrollingOffset;
+        return (scrolloff * 1.0f) / itemHeight;
+    }
+
+    /**
+     * 配置item的字体颜色/大小/间距，结果通过getTextColor/getTextSize/getFontMetricsCenterY获取
+     * @param index 指定item在可视范围内的id
+     * @param scale 滑动距离和item高度的比例值
+     * @return 该item相对上一项的y偏移
+     */
+    float configRow(int index, float scale) {
+        float dy = (int) mNormalItemHeight;
+        int gap = (int) (mSelectItemHeight - mNormalItemHeight);
+        int selectItemId = mVisibleItems / 2;
+
+        float k = 0;
+        if (index < selectItemId) {
+            k = scale;
+        } else if (index == selectItemId) {
+            dy += gap * scale / 2;
+            k = scale;
+        } else if (index == selectItemId + 1) {
+            dy += gap / 2;
+            k = 1 - scale;
+        } else if (index == selectItemId + 2) {
+            dy += gap * (1 - scale) / 2;
+            k = 1 - scale;
+        } else {
+            k = 1 - scale;
+        }
+
+        computeTextSizeAndColor(index, k);
+
+        return dy;
+    }
+
+    private void computeTextSizeAndColor(int index, float scale) {
+        if (mIsTableDirty) {
+            rebuildTable();
+        }
+
+        int selectItemId = mVisibleItems / 2;
+        boolean isCenterRow = index >= selectItemId && index <= selectItemId + 1;
+        int row = foldRow(index);
+
+        if (scale >= 0 && scale <= 1) {
+            int step = (int) (scale * SCALE_STEPS + 0.5f);
+            int pos = row * (SCALE_STEPS + 1) + step;
+            mTextColor = mColorTable[pos];
+            mTextSize = mSizeTable[pos];
+            mFontMetricsCenterY = isCenterRow ? mCenterYTable[step] : mNormalFontMetricsCenterY;
+        } else {
+            // 回弹等情况下比例会超出[0, 1]，直接计算
+            mTextColor = blendColor(getNormalColor(row), getSelectColor(row), row == 0 ? 0 : scale);
+            mTextSize = lerp(getNormalSize(row), getSelectSize(row), row == 0 ? 0 : scale);
+            mFontMetricsCenterY = isCenterRow ? lerp(mNormalFontMetricsCenterY, mSelectFontMetricsCenterY, scale)
+                    : mNormalFontMetricsCenterY;
+        }
+    }
+
+    /*
+     * 行号按到中间选中行的距离折叠，0为最外侧一行，selectItemId为选中行
+     */
+    private int foldRow(int index) {
+        int selectItemId = mVisibleItems / 2;
+        if (index > selectItemId) {
+            index = mVisibleItems - index;
+        }
+        if (index > selectItemId) {
+            index = selectItemId;
+        }
+        if (index < 0) {
+            index = 0;
+        }
+        return index;
+    }
+
+    /*
+     * 把List<Float>/List<Integer>转成primitive数组，并按量化后的比例预先计算每一行的颜色和字体大小
+     */
+    private void rebuildTable() {
+        if (mNormalTextSizes == null || mNormalTextColors == null) {
+            return;
+        }
+
+        mNormalSizes = new float[mNormalTextSizes.size()];
+        for (int i = 0; i < mNormalSizes.length; i++) {
+            mNormalSizes[i] = mNormalTextSizes.get(i);
+        }
+        mNormalColors = new int[mNormalTextColors.size()];
+        for (int i = 0; i < mNormalColors.length; i++) {
+            mNormalColors[i] = mNormalTextColors.get(i);
+        }
+
+        int rows = mVisibleItems / 2 + 1;
+        mColorTable = new int[rows * (SCALE_STEPS + 1)];
+        mSizeTable = new float[rows * (SCALE_STEPS + 1)];
+        mCenterYTable = new float[SCALE_STEPS + 1];
+        for (int step = 0; step <= SCALE_STEPS; step++) {
+            float scale = (float) step / SCALE_STEPS;
+            mCenterYTable[step] = lerp(mNormalFontMetricsCenterY, mSelectFontMetricsCenterY, scale);
+            for (int row = 0; row < rows; row++) {
+                // 最外侧一行不随滑动变化
+                float k = row == 0 ? 0 : scale;
+                int pos = row * (SCALE_STEPS + 1) + step;
+                mColorTable[pos] = blendColor(getNormalColor(row), getSelectColor(row), k);
+                mSizeTable[pos] = lerp(getNormalSize(row), getSelectSize(row), k);
+            }
+        }
+        mIsTableDirty = false;
+    }
+
+    private int getSelectColor(int row) {
+        return row < mVisibleItems / 2 ? mNormalColors[clampNormal(row, mNormalColors.length)] : mSelectTextColor;
+    }
+
+    private int getNormalColor(int row) {
+        return mNormalColors[clampNormal(row - 1, mNormalColors.length)];
+    }
+
+    private float getSelectSize(int row) {
+        return row < mVisibleItems / 2 ? mNormalSizes[clampNormal(row, mNormalSizes.length)] : mSelectTextSize;
+    }
+
+    private float getNormalSize(int row) {
+        return mNormalSizes[clampNormal(row - 1, mNormalSizes.length)];
+    }
+
+    private static int clampNormal(int index, int length) {
+        return Math.max(0, Math.min(index, length - 1));
+    }
+
+    private static float lerp(float from, float to, float scale) {
+        return from + (to - from) * scale;
+    }
+
+    /**
+     * 按比例混合两个ARGB颜色，与Color.argb(...)的逐通道插值结果一致
+     */
+    static int blendColor(int from, int to, float scale) {
+        int fromAlpha = from >>> 24;
+        int fromRed = (from >> 16) & 0xFF;
+        int fromGreen = (from >> 8) & 0xFF;
+        int fromBlue = from & 0xFF;
+
+        int a = fromAlpha + (int) (((to >>> 24) - fromAlpha) * scale);
+        int r = fromRed + (int) ((((to >> 16) & 0xFF) - fromRed) * scale);
+        int g = fromGreen + (int) ((((to >> 8) & 0xFF) - fromGreen) * scale);
+        int b = fromBlue + (int) (((to & 0xFF) - fromBlue) * scale);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    int getTextColor() {
+        return mTextColor;
+    }
+
+    float getTextSize() {
+        return mTextSize;
+    }
+
+    float getFontMetricsCenterY() {
+        return mFontMetricsCenterY;
+    }
+}
@@ -32,13 +32,15 @@ import android.graphics.PorterDuffXfermode;
 import android.graphics.Shader;
 import android.graphics.Typeface;
 import android.os.Handler;
-import android.os.Message;
+import android.os.Looper;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
+import android.view.Choreographer;
 import android.view.GestureDetector;
 import android.view.GestureDetector.SimpleOnGestureListener;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.WindowManager;
 import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.animation.Interpolator;
 import android.widget.Scroller;
@@ -66,6 +68,11 @@ public class ScrollTextView extends View {
     /* 默认可视项个数 */
     private static final int DEF_VISIBLE_ITEMS = 3;
 
+    /* 上下阴影：先画到离屏bitmap，再用DST_OUT渐变擦除边缘 */
+    public static final int FADING_MODE_BITMAP = 0;
+    /* 上下阴影：直接画到canvas，按每一行所在位置降低透明度 */
+    public static final int FADING_MODE_ALPHA = 1;
+
     private Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
     // 当前项值
@@ -89,6 +96,13 @@ public class ScrollTextView extends View {
     private boolean isScrollingPerformed;
     private int mScrollingOffset;
 
+    // 快速滑动开始时预测的最终选中项，没有快速滑动时为-1
+    private int mTargetItem = -1;
+
+    // 滑动过程中暂缓内容改变的通知，mDeferredOldItem为滑动开始前的选中项
+    private boolean mIsDeferChanging = false;
+    private int mDeferredOldItem = -1;
+
     // 显示的Y偏移，第一行开始位置的偏移
     private int mOffsetY;
     private int mOffsetX;
@@ -103,6 +117,10 @@ public class ScrollTextView extends View {
     // View adapter
     private ScrollTextViewAdapter mViewAdapter;
     private IDataAdapter mDataInterface;
+    private IStateDataAdapter mStateInterface;
+
+    // 淡化显示的选项的透明度比例
+    private float mDimmedAlpha = 0.3f;
 
     // 上下阴影
     private Shader mFadingShader;
@@ -110,10 +128,13 @@ public class ScrollTextView extends View {
     private Paint mFadingPaint;
     private float mFadingHeight;
     private boolean mIsDrawFading = true;
+    private int mFadingMode = FADING_MODE_ALPHA;
 
     private float mSelectFontMetricsCenterY;
     private float mNormalFontMetricsCenterY;
-    private float mFontMetricsCenterY;
+
+    // 每一帧的行布局和字体颜色/大小计算
+    private final ScrollTextFrame mFrame = new ScrollTextFrame();
 
     // flyme6需求添加，flyme6需要可以配置每一项的字体大小，字体颜色
     private List<Float> mNormalTextSizes;
@@ -147,6 +168,19 @@ public class ScrollTextView extends View {
 
     }
 
+    /**
+     * 带选项状态的数据适配器
+     *
+     */
+    public interface IStateDataAdapter extends IDataAdapter {
+        /**
+         * 指定位置的选项是否淡化显示，每一帧绘制时调用，实现中只能读取已缓存的状态
+         * @param position
+         * @return true表示淡化显示
+         */
+        public boolean isItemDimmed(int position);
+    }
+
     /**
      * 选中项改变事件监听
      * @author xiaohongzhi
@@ -195,10 +229,41 @@ public class ScrollTextView extends View {
         void onScrollingFinished(ScrollTextView view);
     }
 
+    /**
+     * 快速滑动目标项监听
+     */
+    public interface OnScrollTextViewTargetListener {
+        /**
+         * Callback method to be invoked when a fling starts and the item it
+         * is likely to settle on is known.
+         * @param view the ScrollTextView being flung
+         * @param targetItem the item the fling is expected to stop at
+         */
+        void onTargetPredicted(ScrollTextView view, int targetItem);
+    }
+
+    /**
+     * 绘制耗时统计监听
+     */
+    public interface OnScrollTextViewFrameStatsListener {
+        /**
+         * Callback method to be invoked when scrolling ended and frame
+         * statistics of the scrolling are available.
+         * @param view the ScrollTextView whose state has changed.
+         * @param stats the accumulated statistics, may be reset by the callee
+         */
+        void onFrameStats(ScrollTextView view, FrameTimeHistogram stats);
+    }
+
     // Listeners
     private List<OnScrollTextViewChangedListener> mChangingListeners = new LinkedList<OnScrollTextViewChangedListener>();
     private List<OnScrollTextViewScrollListener> mScrollingListeners = new LinkedList<OnScrollTextViewScrollListener>();
     private List<OnScrollTextViewClickedListener> mClickingListeners = new LinkedList<OnScrollTextViewClickedListener>();
+    private List<OnScrollTextViewTargetListener> mTargetListeners = new LinkedList<OnScrollTextViewTargetListener>();
+    private List<OnScrollTextViewFrameStatsListener> mFrameStatsListeners = new LinkedList<OnScrollTextViewFrameStatsListener>();
+
+    // 绘制耗时统计，只有添加了OnScrollTextViewFrameStatsListener时才创建
+    private FrameTimeHistogram mFrameStats;
 
     private Paint mBitmapPaint;
     private Context mContext;
@@ -362,6 +427,7 @@ public class ScrollTextView extends View {
         setIDataAdapter(dataAdapter);
         mVisibleItems = oneScreenCount;
         isCyclic = cycleEnabled;
+        updateFrame();
 
         if (lineOffset == -1) {
             mOffsetY = getResources().getDimensionPixelSize(
@@ -386,10 +452,16 @@ public class ScrollTextView extends View {
     private ScrollingListener mScrollingListener = new ScrollingListener() {
         public void onStarted() {
             isScrollingPerformed = true;
+            if (mFrameStats != null) {
+                mFrameStats.startScrolling();
+            }
             notifyScrollingListenersAboutStart();
         }
 
         public void onScroll(int distance) {
+            if (mFrameStats != null) {
+                mFrameStats.recordScrollStep();
+            }
             doScroll(distance);
 
             int height = getHeight();
@@ -409,9 +481,23 @@ public class ScrollTextView extends View {
             }
 
             mScrollingOffset = 0;
+            mTargetItem = -1;
             invalidate();
         }
 
+        public int onFling(int distance) {
+            int snapped = snapFlingDistance(distance);
+            mTargetItem = predictTargetItem(snapped);
+            notifyTargetListeners(mTargetItem);
+            return snapped;
+        }
+
+        public void onFrame(long frameTimeNanos) {
+            if (mFrameStats != null) {
+                mFrameStats.recordVsync(frameTimeNanos);
+            }
+        }
+
         public void onJustify() {
             if (!isCyclic && getCurrentItem() < mViewAdapter.getValidStart()) {
                 scroll(mViewAdapter.getValidStart() - getCurrentItem(), 0);
@@ -450,6 +536,7 @@ public class ScrollTextView extends View {
      */
     public void setVisibleItems(int count) {
         mVisibleItems = count;
+        updateFrame();
     }
 
     /**
@@ -498,11 +585,51 @@ public class ScrollTextView extends View {
      * @param newValue the new item id value
      */
     protected void notifyChangingListeners(int oldValue, int newValue) {
+        if (mIsDeferChanging && isScrollingPerformed) {
+            // 只记录滑动开始前的值，滑动停止后一次性通知
+            if (mDeferredOldItem < 0) {
+                mDeferredOldItem = oldValue;
+            }
+            return;
+        }
         for (OnScrollTextViewChangedListener listener : mChangingListeners) {
             listener.onChanged(this, oldValue, newValue);
         }
     }
 
+    /**
+     * 设置滑动过程中是否暂缓内容改变的通知
+     * <p>设置为true时，滑动经过的中间项不再逐个通知OnScrollTextViewChangedListener，
+     * 滑动停止后只通知一次滑动前后的值。</p>
+     * @param defer true to defer notifications until scrolling finished
+     */
+    public void setDeferChangingNotifications(boolean defer) {
+        mIsDeferChanging = defer;
+        if (!defer) {
+            flushDeferredChanging();
+        }
+    }
+
+    public boolean isDeferChangingNotifications() {
+        return mIsDeferChanging;
+    }
+
+    /*
+     * 通知滑动过程中暂缓的内容改变
+     */
+    private void flushDeferredChanging() {
+        if (mDeferredOldItem < 0) {
+            return;
+        }
+        int old = mDeferredOldItem;
+        mDeferredOldItem = -1;
+        if (old != mCurrentItem) {
+            for (OnScrollTextViewChangedListener listener : mChangingListeners) {
+                listener.onChanged(this, old, mCurrentItem);
+            }
+        }
+    }
+
     /**
      * Adds scrolltextview scrolling listener
      * 添加ScrollTextView滑动的监听
@@ -534,12 +661,141 @@ public class ScrollTextView extends View {
      * Notifies listeners about ending scrolling
      */
     protected void notifyScrollingListenersAboutEnd() {
+        flushDeferredChanging();
         if (mDataInterface != null) {
             mDataInterface.onChanged(this, 0, getCurrentItem());
         }
         for (OnScrollTextViewScrollListener listener : mScrollingListeners) {
             listener.onScrollingFinished(this);
         }
+        notifyFrameStatsListeners();
+    }
+
+    /**
+     * Adds scrolltextview frame statistics listener, statistics are only
+     * recorded while at least one listener is registered
+     * 添加ScrollTextView绘制耗时统计的监听，添加后开始统计
+     * @param listener the listener
+     */
+    public void addFrameStatsListener(OnScrollTextViewFrameStatsListener listener) {
+        mFrameStatsListeners.add(listener);
+        if (mFrameStats == null) {
+            mFrameStats = new FrameTimeHistogram();
+            mFrameStats.setRefreshRate(getRefreshRate());
+        }
+    }
+
+    /**
+     * Removes scrolltextview frame statistics listener
+     * 删除ScrollTextView绘制耗时统计的监听，全部删除后停止统计
+     * @param listener the listener
+     */
+    public void removeFrameStatsListener(OnScrollTextViewFrameStatsListener listener) {
+        mFrameStatsListeners.remove(listener);
+        if (mFrameStatsListeners.isEmpty()) {
+            mFrameStats = null;
+        }
+    }
+
+    /**
+     * Notifies listeners about the frame statistics of the finished scrolling
+     */
+    protected void notifyFrameStatsListeners() {
+        if (mFrameStats == null) {
+            return;
+        }
+        for (OnScrollTextViewFrameStatsListener listener : mFrameStatsListeners) {
+            listener.onFrameStats(this, mFrameStats);
+        }
+    }
+
+    /*
+     * 屏幕刷新率，用于判断丢帧
+     */
+    private float getRefreshRate() {
+        WindowManager windowManager = (WindowManager) mContext.getSystemService(Context.WINDOW_SERVICE);
+        if (windowManager == null) {
+            return 0;
+        }
+        return windowManager.getDefaultDisplay().getRefreshRate();
+    }
+
+    /**
+     * Adds scrolltextview fling target listener
+     * 添加ScrollTextView快速滑动目标项的监听
+     * @param listener the listener
+     */
+    public void addTargetListener(OnScrollTextViewTargetListener listener) {
+        mTargetListeners.add(listener);
+    }
+
+    /**
+     * Removes scrolltextview fling target listener
+     * 删除ScrollTextView快速滑动目标项的监听
+     * @param listener the listener
+     */
+    public void removeTargetListener(OnScrollTextViewTargetListener listener) {
+        mTargetListeners.remove(listener);
+    }
+
+    /**
+     * Notifies listeners about the predicted fling target
+     */
+    protected void notifyTargetListeners(int targetItem) {
+        for (OnScrollTextViewTargetListener listener : mTargetListeners) {
+            listener.onTargetPredicted(this, targetItem);
+        }
+    }
+
+    /**
+     * Returns the item a running fling will settle on, or the current item
+     * when no fling is in progress
+     * 获取快速滑动最终停留的item，在快速滑动开始时即可获取
+     * @return the target item
+     */
+    public int getTargetItem() {
+        return mTargetItem >= 0 ? mTargetItem : getCurrentItem();
+    }
+
+    /*
+     * 把快速滑动的总距离调整到item的边界，停止时不需要再通过justify回弹对齐
+     * @param distance Scroller计算的总滑动距离
+     * @return 调整后的总滑动距离
+     */
+    private int snapFlingDistance(int distance) {
+        int itemHeight = getItemHeight();
+        if (itemHeight == 0 || mViewAdapter.getItemsCount() <= 1) {
+            return distance;
+        }
+
+        // 停止时的mScrollingOffset为mScrollingOffset - distance，取整到itemHeight的倍数
+        int offset = mScrollingOffset - distance;
+        int snapped = mScrollingOffset - Math.round((float) offset / itemHeight) * itemHeight;
+        return Math.max(getYScrollStart(), Math.min(snapped, getYScrollEnd()));
+    }
+
+    /*
+     * 根据滑动的总距离预测最终停留的item
+     * @param distance Scroller的总滑动距离
+     * @return 预计停留的item
+     */
+    private int predictTargetItem(int distance) {
+        int itemCount = mViewAdapter.getItemsCount();
+        int itemHeight = getItemHeight();
+        if (itemCount == 0 || itemHeight == 0) {
+            return mCurrentItem;
+        }
+
+        // Scroller的y增加时内容向上滑动，选中项增大
+        int offset = mScrollingOffset - distance;
+        int target = mCurrentItem - Math.round((float) offset / itemHeight);
+        if (isCyclic) {
+            target = floorMod(target, itemCount);
+        } else {
+            target = Math.max(target, mViewAdapter.getValidStart());
+            target = Math.min(target, Math.min(mViewAdapter.getValidEnd(), itemCount - 1));
+        }
+        return target;
     }
 
     /**
@@ -579,6 +835,14 @@ public class ScrollTextView extends View {
         return mCurrentItem;
     }
 
+    /*
+     * 循环滑动时把位置折算到[0, itemCount)，滑动距离再大也是常数时间
+     */
+    private static int floorMod(int index, int itemCount) {
+        int mod = index % itemCount;
+        return mod < 0 ? mod + itemCount : mod;
+    }
+
     /**
      * Sets the current item. Does nothing when index is wrong.
      * @param index the item index
@@ -592,10 +856,7 @@ public class ScrollTextView extends View {
         int itemCount = mViewAdapter.getItemsCount();
         if (index < 0 || index >= itemCount) {// check index
             if (isCyclic) {
-                while (index < 0) {
-                    index += itemCount;
-                }
-                index %= itemCount;
+                index = floorMod(index, itemCount);
             } else {
                 return; // throw?
             }
@@ -679,6 +940,25 @@ public class ScrollTextView extends View {
 
     @Override
     protected void onDraw(Canvas canvas) {
+        // 只统计滑动过程中的帧，空闲时的重绘和布局引起的绘制不计入
+        if (mFrameStats == null || !isScrollingPerformed) {
+            drawFrame(canvas);
+            return;
+        }
+        long start = System.nanoTime();
+        drawFrame(canvas);
+        mFrameStats.recordFrame(System.nanoTime() - start);
+    }
+
+    private void drawFrame(Canvas canvas) {
+        if (mFadingMode == FADING_MODE_ALPHA) {
+            if (mViewAdapter != null && mViewAdapter.getItemsCount() > 0) {
+                rebuildItems();
+                drawItems(canvas);
+            }
+            return;
+        }
+
         Bitmap bitmap = getBitmap(getWidth(), getHeight());
         if (mIsBitmapChanged) {
             mTmpCanvas.setBitmap(bitmap);
@@ -737,6 +1017,24 @@ public class ScrollTextView extends View {
         canvas.drawRect(0, getHeight() - mFadingHeight, getWidth(), getHeight(), mFadingPaint);
     }
 
+    /*
+     * 按行中心到上下边缘的距离降低透明度，效果与drawVerticalFading的DST_OUT渐变一致
+     * @param color 行的字体颜色
+     * @param centerY 行中心在view中的y坐标
+     */
+    private int applyVerticalFading(int color, float centerY) {
+        if (mFadingHeight <= 0) {
+            return color;
+        }
+        float distance = Math.min(centerY, getHeight() - centerY);
+        if (distance >= mFadingHeight) {
+            return color;
+        }
+        float fraction = distance <= 0 ? 0 : distance / mFadingHeight;
+        int alpha = (int) (Color.alpha(color) * fraction);
+        return (alpha << 24) | (color & 0x00FFFFFF);
+    }
+
     /*
      * 画items
      * @param canvas 画布
@@ -749,21 +1047,30 @@ public class ScrollTextView extends View {
         float dy = -top + mScrollingOffset - getItemHeight();
         canvas.translate(mOffsetX, dy);
 
-        int scrolloff = mScrollingOffset > 0 ? mScrollingOffset
-                : getItemHeight() + mScrollingOffset;
-        float k = (scrolloff * 1.0f) / getItemHeight();
+        float k = mFrame.getScrollScale(mScrollingOffset);
+        boolean isAlphaFading = mIsDrawFading && mFadingMode == FADING_MODE_ALPHA;
 
         yoff = dy;
         dy = 0;
         for (int i = 0; i < mRange.getCount(); i++) {
-            dy = configTextView(i, k);
+            dy = mFrame.configRow(i, k);
             canvas.translate(0, dy);
 
             yoff += dy;
 
+            int color = mFrame.getTextColor();
+            if (isItemDimmed(i)) {
+                color = ((int) (Color.alpha(color) * mDimmedAlpha) << 24) | (color & 0x00FFFFFF);
+            }
+            if (isAlphaFading) {
+                color = applyVerticalFading(color, yoff + mNormalItemHeight / 2);
+            }
+            mTextPaint.setColor(color);
+            mTextPaint.setTextSize(mFrame.getTextSize());
+
             String text = getItemText(i);
 
-            float baseline = mNormalItemHeight / 2 - mFontMetricsCenterY;
+            float baseline = mNormalItemHeight / 2 - mFrame.getFontMetricsCenterY();
             canvas.drawText(text, getWidth()/2, baseline,
                     mTextPaint);
 
@@ -772,6 +1079,25 @@ public class ScrollTextView extends View {
         canvas.translate(-mOffsetX, -yoff);
     }
 
+    /*
+     * 指定的可视行是否淡化显示
+     * @param i 可视范围内的行号
+     */
+    private boolean isItemDimmed(int i) {
+        if (mStateInterface == null) {
+            return false;
+        }
+        int t = i + mFirstItem;
+        int count = mViewAdapter.getItemsCount();
+        if (t < 0 || t >= count) {
+            if (!isCyclic || count == 0) {
+                return false;
+            }
+            t = t < 0 ? count + t : t - count;
+        }
+        return t >= 0 && t < count && mStateInterface.isItemDimmed(t);
+    }
+
     /*
      * 获取指定的time的字符
      * @param i
@@ -796,97 +1122,6 @@ public class ScrollTextView extends View {
         return s;
     }
 
-    /*
-     * 配置item的字体颜色/大小/间距
-     * @param index 指定item的id
-     * @param scale 滑动距离和item高度的比例值
-     * @return
-     */
-    private float configTextView(int index, float scale) {
-        float dy = getItemHeight();
-        int gap = (int) (mSelectItemHeight - mNormalItemHeight);
-        int selectItemId = mVisibleItems / 2;
-
-        float k = 0;
-        if (index < selectItemId) {
-            k = scale;
-        } else if (index == selectItemId) {
-            dy += gap * scale / 2;
-            k = scale;
-        } else if (index == selectItemId + 1) {
-            dy += gap / 2;
-            k = 1 - scale;
-        } else if (index == selectItemId + 2) {
-            dy += gap * (1 - scale) / 2;
-            k = 1 - scale;
-        } else {
-            k = 1 - scale;
-        }
-
-        computeTextSizeAndColor(index, k);
-
-        return dy;
-    }
-
-    private void computeTextSizeAndColor(int index, float scale) {
-        int selectItemId = mVisibleItems / 2;
-        int selectColor = mSelectTextColor;
-        int normalColor = mNormalTextColor;
-        float selectTextSize = mSelectTextSize;
-        float normalTextSize = mNormalTextSize;
-
-        if (index >= selectItemId && index <= selectItemId + 1) {
-            mFontMetricsCenterY = (mNormalFontMetricsCenterY + (mSelectFontMetricsCenterY - mNormalFontMetricsCenterY) * scale);
-        } else {
-            mFontMetricsCenterY = mNormalFontMetricsCenterY;
-        }
-
-        if (index > selectItemId) {
-            index = mVisibleItems - index;
-        }
-        if (index > selectItemId) {
-            index = selectItemId;
-        }
-        if (index < 0) {
-            index = 0;
-        }
-        if (index == 0) {
-            selectColor = mNormalTextColors.get(index);
-            normalColor = mNormalTextColors.get(index);
-            selectTextSize = mNormalTextSizes.get(index);
-            normalTextSize = mNormalTextSizes.get(index);
-            scale = 0.0f;
-        } else if(index < selectItemId) {
-            selectColor = mNormalTextColors.get(index);
-            normalColor = mNormalTextColors.get(index - 1);
-            selectTextSize = mNormalTextSizes.get(index);
-            normalTextSize = mNormalTextSizes.get(index - 1);
-        } else {
-            selectColor = mSelectTextColor;
-            normalColor = mNormalTextColors.get(index - 1);
-            selectTextSize = mSelectTextSize;
-            normalTextSize = mNormalTextSizes.get(index - 1);
-        }
-        int selectalpha = Color.alpha(selectColor);
-        int slecetred = Color.red(selectColor);
-        int slecetgreen = Color.green(selectColor);
-        int slecetblue = Color.blue(selectColor);
-
-        int unselectalpha = Color.alpha(normalColor);
-        int unslecetred = Color.red(normalColor);
-        int unslecetgreen = Color.green(normalColor);
-        int unslecetblue = Color.blue(normalColor);
-
-        int a = (int) (unselectalpha + (int) ((selectalpha - unselectalpha) * scale));
-        int r = unslecetred + (int) ((slecetred - unslecetred) * scale);
-        int g = unslecetgreen + (int) ((slecetgreen - unslecetgreen) * scale);
-        int b = unslecetblue + (int) ((slecetblue - unslecetblue) * scale);
-        int color = Color.argb(a, r, g, b);
-
-        mTextPaint.setColor(color);
-        mTextPaint.setTextSize(normalTextSize + (selectTextSize - normalTextSize) * scale);
-    }
-
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (!isEnabled() || getViewAdapter() == null) {
@@ -894,6 +1129,11 @@ public class ScrollTextView extends View {
         }
 
         switch (event.getAction()) {
+        case MotionEvent.ACTION_DOWN:
+            // 按下时正在进行的快速滑动会被停止
+            mTargetItem = -1;
+            break;
+
         case MotionEvent.ACTION_MOVE:
             if (getParent() != null) {
                 getParent().requestDisallowInterceptTouchEvent(mParentRequestDisallowInterceptTouchEvent);
@@ -1014,10 +1254,7 @@ public class ScrollTextView extends View {
                 count--;
             }
             // fix position by rotating
-            while (pos < 0) {
-                pos += itemCount;
-            }
-            pos %= itemCount;
+            pos = floorMod(pos, itemCount);
         } else {
             if (pos < getScrollStartItem()) {// item小于0时不允许向下滑动
                 count = mCurrentItem - getScrollStartItem();
@@ -1129,6 +1366,19 @@ public class ScrollTextView extends View {
         mTextPaint.setTextSize(mNormalTextSize);
         fontMetrics = mTextPaint.getFontMetricsInt();
         mNormalFontMetricsCenterY = (fontMetrics.bottom + fontMetrics.top) / 2;
+
+        updateFrame();
+    }
+
+    /*
+     * 同步绘制参数到mFrame
+     */
+    private void updateFrame() {
+        mFrame.setVisibleItems(mVisibleItems);
+        mFrame.setItemHeight(mSelectItemHeight, mNormalItemHeight);
+        mFrame.setTextSize(mSelectTextSize, mNormalTextSizes);
+        mFrame.setTextColor(mSelectTextColor, mNormalTextColors);
+        mFrame.setFontMetricsCenterY(mSelectFontMetricsCenterY, mNormalFontMetricsCenterY);
     }
 
     /*
@@ -1172,6 +1422,7 @@ public class ScrollTextView extends View {
             mNormalTextColors.add(new Integer(mNormalTextColor));
         }
 
+        updateFrame();
         invalidate();
     }
 
@@ -1191,6 +1442,7 @@ public class ScrollTextView extends View {
             }
         }
 
+        updateFrame();
         invalidate();
     }
 
@@ -1296,6 +1548,18 @@ public class ScrollTextView extends View {
      */
     public void setIDataAdapter(IDataAdapter adapter) {
         mDataInterface = adapter;
+        mStateInterface = adapter instanceof IStateDataAdapter ? (IStateDataAdapter) adapter : null;
+    }
+
+    /**
+     * 设置淡化显示的选项的透明度比例
+     * @param dimmedAlpha 0-1，相对正常颜色的透明度
+     */
+    public void setDimmedAlpha(float dimmedAlpha) {
+        if (mDimmedAlpha != dimmedAlpha) {
+            mDimmedAlpha = dimmedAlpha;
+            invalidate();
+        }
     }
 
     /**
@@ -1328,6 +1592,26 @@ public class ScrollTextView extends View {
         mIsDrawFading = isDrawFading;
     }
 
+    /**
+     * 设置上下阴影的绘制方式
+     * @param fadingMode {@link #FADING_MODE_BITMAP} 或 {@link #FADING_MODE_ALPHA}
+     */
+    public void setFadingMode(int fadingMode) {
+        if (mFadingMode == fadingMode) {
+            return;
+        }
+        mFadingMode = fadingMode;
+        if (mFadingMode == FADING_MODE_ALPHA && mTmpBitmap != null) {
+            mTmpBitmap.recycle();
+            mTmpBitmap = null;
+        }
+        invalidate();
+    }
+
+    public int getFadingMode() {
+        return mFadingMode;
+    }
+
     /*
      * 可视item的范围
      */
@@ -1484,6 +1768,19 @@ public class ScrollTextView extends View {
          */
         void onScroll(int distance);
 
+        /*
+         * Fling callback called when a fling is started
+         * @param distance the total distance the fling will scroll
+         * @return the distance the fling should actually scroll
+         */
+        int onFling(int distance);
+
+        /*
+         * Frame callback called on every vsync of the scrolling animation
+         * @param frameTimeNanos the vsync time of the frame
+         */
+        void onFrame(long frameTimeNanos);
+
         /*
          * Starting callback called when scrolling is started
          */
@@ -1530,7 +1827,9 @@ public class ScrollTextView extends View {
          * @param scrollTextView 
          */
         public ScrollTextViewScroller(Context context, ScrollingListener listener) {
-            gestureDetector = new GestureDetector(context, gestureListener);
+            // 使用主线程的Handler，使ScrollTextView可以在后台线程中创建
+            gestureDetector = new GestureDetector(context, gestureListener,
+                    new Handler(Looper.getMainLooper()));
             gestureDetector.setIsLongpressEnabled(false);
 
             scroller = new Scroller(context);
@@ -1618,34 +1917,46 @@ public class ScrollTextView extends View {
                 final int minY = getYScrollStart();
 
                 scroller.fling(0, lastScrollY, 0, (int) -velocityY, 0, 0, minY, maxY);
+                // 终点对齐到item边界，fling的减速曲线按新的终点缩放
+                int finalY = listener.onFling(scroller.getFinalY());
+                if (finalY != scroller.getFinalY()) {
+                    scroller.setFinalY(finalY);
+                }
                 setNextMessage(MESSAGE_SCROLL);
                 return true;
             }
         };
 
         // Messages
-        private final int MESSAGE_SCROLL = 0;
-        private final int MESSAGE_JUSTIFY = 1;
+        private static final int MESSAGE_NONE = -1;
+        private static final int MESSAGE_SCROLL = 0;
+        private static final int MESSAGE_JUSTIFY = 1;
+
+        // 下一帧要执行的动作
+        private int pendingMessage = MESSAGE_NONE;
 
         /*
-         * Set next message to queue. Clears queue before.
+         * Set next message to run on the next vsync. Clears queue before.
          * @param message the message to set
          */
         private void setNextMessage(int message) {
             clearMessages();
-            animationHandler.sendEmptyMessage(message);
+            pendingMessage = message;
+            Choreographer.getInstance().postFrameCallback(animationCallback);
         }
 
         /*
          * Clears messages from queue
          */
         private void clearMessages() {
-            animationHandler.removeMessages(MESSAGE_SCROLL);
-            animationHandler.removeMessages(MESSAGE_JUSTIFY);
+            if (pendingMessage != MESSAGE_NONE) {
+                Choreographer.getInstance().removeFrameCallback(animationCallback);
+                pendingMessage = MESSAGE_NONE;
+            }
         }
 
-        // animation handler
-        private Handler animationHandler = new AnimationHandler(this);
+        // animation frame callback
+        private final AnimationFrameCallback animationCallback = new AnimationFrameCallback(this);
 
         /*
          * Justifies item position
@@ -1676,37 +1987,54 @@ public class ScrollTextView extends View {
         }
     }
 
-    private static class AnimationHandler extends Handler{
+    /*
+     * 每个vsync执行一步滑动。Scroller取的是AnimationUtils的动画时间，
+     * 在Choreographer回调中即为当前帧的时间，所以每帧的位置由帧时间决定
+     */
+    private static class AnimationFrameCallback implements Choreographer.FrameCallback {
         private final WeakReference<ScrollTextViewScroller> mScrollTextViewScroller;
 
-        public AnimationHandler(ScrollTextViewScroller scrollTextViewScroller) {
+        public AnimationFrameCallback(ScrollTextViewScroller scrollTextViewScroller) {
             mScrollTextViewScroller = new WeakReference<ScrollTextViewScroller>(scrollTextViewScroller);
         }
 
-        public void handleMessage(Message msg) {
+        @Override
+        public void doFrame(long frameTimeNanos) {
             ScrollTextViewScroller scrollTextViewScroller = mScrollTextViewScroller.get();
-            if (scrollTextViewScroller != null) {
-                scrollTextViewScroller.scroller.computeScrollOffset();// 计算滑动位置
-                int currY = scrollTextViewScroller.scroller.getCurrY();
-                int delta = scrollTextViewScroller.lastScrollY - currY;
-                scrollTextViewScroller.lastScrollY = currY;
-                if (delta != 0) {
-                    scrollTextViewScroller.listener.onScroll(delta);
-                }
+            if (scrollTextViewScroller == null) {
+                return;
+            }
+            int message = scrollTextViewScroller.pendingMessage;
+            if (message == ScrollTextViewScroller.MESSAGE_NONE) {
+                return;
+            }
+            scrollTextViewScroller.pendingMessage = ScrollTextViewScroller.MESSAGE_NONE;
+            scrollTextViewScroller.listener.onFrame(frameTimeNanos);
+
+            scrollTextViewScroller.scroller.computeScrollOffset();// 计算滑动位置
+            int currY = scrollTextViewScroller.scroller.getCurrY();
+            int delta = scrollTextViewScroller.lastScrollY - currY;
+            scrollTextViewScroller.lastScrollY = currY;
+            if (delta != 0) {
+                scrollTextViewScroller.listener.onScroll(delta);
+            }
 
-                // scrolling is not finished when it comes to final Y
-                // so, finish it manually
-                if (Math.abs(currY - scrollTextViewScroller.scroller.getFinalY()) < ScrollTextViewScroller.MIN_DELTA_FOR_SCROLLING) {
-                    currY = scrollTextViewScroller.scroller.getFinalY();
-                    scrollTextViewScroller.scroller.forceFinished(true);
-                }
-                if (!scrollTextViewScroller.scroller.isFinished()) {
-                    scrollTextViewScroller.animationHandler.sendEmptyMessage(msg.what);
-                } else if (msg.what == scrollTextViewScroller.MESSAGE_SCROLL) {
-                    scrollTextViewScroller.justify();
-                } else {
-                    scrollTextViewScroller.finishScrolling();
-                }
+            // scrolling is not finished when it comes to final Y
+            // so, finish it manually
+            if (Math.abs(currY - scrollTextViewScroller.scroller.getFinalY()) < ScrollTextViewScroller.MIN_DELTA_FOR_SCROLLING) {
+                currY = scrollTextViewScroller.scroller.getFinalY();
+                scrollTextViewScroller.scroller.forceFinished(true);
+            }
+            if (scrollTextViewScroller.pendingMessage != ScrollTextViewScroller.MESSAGE_NONE) {
+                // onScroll中已经重新开始了滑动
+                return;
+            }
+            if (!scrollTextViewScroller.scroller.isFinished()) {
+                scrollTextViewScroller.setNextMessage(message);
+            } else if (message == ScrollTextViewScroller.MESSAGE_SCROLL) {
+                scrollTextViewScroller.justify();
+            } else {
+                scrollTextViewScroller.finishScrolling();
             }
         }
     }